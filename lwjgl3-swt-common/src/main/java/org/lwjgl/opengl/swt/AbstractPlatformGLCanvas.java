@@ -1,5 +1,6 @@
 package org.lwjgl.opengl.swt;
 
+import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Composite;
 import org.lwjgl.opengl.swt.GLData.API;
 
@@ -106,4 +107,110 @@ abstract class AbstractPlatformGLCanvas implements PlatformGLCanvas {
 	}
 
 	public void resetStyle(Composite parent) {}
+
+    /**
+     * Present only the given damaged regions if the platform supports it.
+     * <p>
+     * This default implementation performs a full swap.
+     * 
+     * @return <code>true</code> if only the damaged regions were presented; <code>false</code> if a full swap was performed
+     */
+    public boolean swapBuffers(GLCanvas canvas, Rectangle[] damage) {
+        swapBuffers(canvas);
+        return false;
+    }
+
+    /**
+     * Prepare creating the context of the given canvas on a background thread via {@link #createContext(GLCanvas, GLData, GLData)}
+     * followed by {@link #attachContext(GLCanvas, GLData, long)} on the SWT thread.
+     * <p>
+     * This default implementation does not support this and returns <code>false</code>, in which case
+     * {@link #create(GLCanvas, GLData, GLData)} is used on the SWT thread instead.
+     * 
+     * @return <code>true</code> if the context can be created off the SWT thread
+     */
+    public boolean prepareCreate(GLCanvas canvas, GLData attribs) {
+        return false;
+    }
+
+    public long createContext(GLCanvas canvas, GLData attribs, GLData effective) {
+        throw new UnsupportedOperationException("Asynchronous context creation is not supported on this platform");
+    }
+
+    public void attachContext(GLCanvas canvas, GLData attribs, long context) {
+        throw new UnsupportedOperationException("Asynchronous context creation is not supported on this platform");
+    }
+
+    public int getBufferAge(GLCanvas canvas) {
+        return 0;
+    }
+
+    public long createWorkerDrawable(GLCanvas canvas) {
+        throw new UnsupportedOperationException("Worker contexts are not supported on this platform");
+    }
+
+    public long createWorkerContext(GLCanvas canvas) {
+        throw new UnsupportedOperationException("Worker contexts are not supported on this platform");
+    }
+
+    public boolean makeWorkerCurrent(GLCanvas canvas, long drawable, long context) {
+        throw new UnsupportedOperationException("Worker contexts are not supported on this platform");
+    }
+
+    public void deleteWorker(GLCanvas canvas, long drawable, long context) {
+        throw new UnsupportedOperationException("Worker contexts are not supported on this platform");
+    }
+
+    public boolean getSyncValues(GLCanvas canvas, long[] ustMscSbc) {
+        return false;
+    }
+
+    public long swapBuffersMsc(GLCanvas canvas, long targetMsc, long divisor, long remainder) {
+        return -1L;
+    }
+
+    public boolean waitForMsc(GLCanvas canvas, long targetMsc, long divisor, long remainder, long[] ustMscSbc) {
+        return false;
+    }
+
+    public boolean isCurrent(GLCanvas canvas, long context) {
+        return isCurrent(context);
+    }
+
+    public boolean queryRendererInteger(GLCanvas canvas, int attribute, int[] value) {
+        return false;
+    }
+
+    public long[] saveCurrent() {
+        // the current context is left to the application
+        return null;
+    }
+
+    public void restoreCurrent(GLCanvas canvas, long[] saved) {
+    }
+
+    public boolean canRecreateContext() {
+        // creating a context is only expected once per canvas
+        return false;
+    }
+
+    public boolean isDisplayThreadSafe(GLCanvas canvas) {
+        // no connection to a display server is shared with the toolkit
+        return true;
+    }
+
+    public boolean fitDrawable(GLCanvas canvas) {
+        // the drawable is the widget itself
+        return false;
+    }
+
+    public boolean resizeDrawable(GLCanvas canvas, int width, int height) {
+        // the drawable is the widget itself
+        return false;
+    }
+
+    public boolean setHighRatePointerInput(GLCanvas canvas, boolean enable) {
+        // other platforms deliver all motion events already
+        return true;
+    }
 }
@@ -0,0 +1,90 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.GL32.*;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * Limits the number of frames the driver may queue behind {@link GLCanvas#swapBuffers()} using fence sync objects.
+ * <p>
+ * After each swap a fence is inserted into the command stream. Once more than {@link #getMaxFramesInFlight()} fences are outstanding,
+ * the CPU waits for the oldest one before returning from the swap, so that the next frame cannot start more than that many frames
+ * ahead of the GPU.
+ *
+ * @author Kai Burjack
+ */
+class FrameLatencyLimiter {
+    private final int maxFramesInFlight;
+    private final long[] fences;
+    private int head;
+    private int count;
+    private int queueDepth;
+    private long lastWaitNanos;
+    private long totalWaitNanos;
+    private long frames;
+
+    FrameLatencyLimiter(int maxFramesInFlight) {
+        GLCapabilities caps = GL.getCapabilities();
+        if (!caps.OpenGL32 && !caps.GL_ARB_sync) {
+            throw new UnsupportedOperationException("Limiting frames in flight requires OpenGL 3.2 or GL_ARB_sync");
+        }
+        this.maxFramesInFlight = maxFramesInFlight;
+        // one more slot for the fence of the frame just swapped, before the oldest one has been waited for
+        this.fences = new long[maxFramesInFlight + 1];
+    }
+
+    int getMaxFramesInFlight() {
+        return maxFramesInFlight;
+    }
+
+    /**
+     * Must be called right after the buffers have been swapped, with the context current.
+     */
+    void afterSwap() {
+        long fence = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        fences[(head + count) % fences.length] = fence;
+        count++;
+        int pending = 0;
+        for (int i = 0; i < count; i++) {
+            if (glGetSynci(fences[(head + i) % fences.length], GL_SYNC_STATUS, null) != GL_SIGNALED)
+                pending++;
+        }
+        queueDepth = pending;
+        long waited = 0L;
+        if (count > maxFramesInFlight) {
+            long oldest = fences[head];
+            long time = System.nanoTime();
+            glClientWaitSync(oldest, GL_SYNC_FLUSH_COMMANDS_BIT, Long.MAX_VALUE);
+            waited = System.nanoTime() - time;
+            glDeleteSync(oldest);
+            fences[head] = 0L;
+            head = (head + 1) % fences.length;
+            count--;
+        }
+        lastWaitNanos = waited;
+        totalWaitNanos += waited;
+        frames++;
+    }
+
+    int getQueueDepth() {
+        return queueDepth;
+    }
+
+    long getLastWaitNanos() {
+        return lastWaitNanos;
+    }
+
+    long getAverageWaitNanos() {
+        return frames == 0 ? 0L : totalWaitNanos / frames;
+    }
+
+    /**
+     * Delete all outstanding fences. The context must be current.
+     */
+    void free() {
+        for (int i = 0; i < count; i++)
+            glDeleteSync(fences[(head + i) % fences.length]);
+        count = 0;
+    }
+}
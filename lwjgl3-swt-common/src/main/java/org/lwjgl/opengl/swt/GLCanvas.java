@@ -1,9 +1,25 @@
 package org.lwjgl.opengl.swt;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.internal.DPIUtil;
 import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Listener;
+import org.lwjgl.opengl.ARBRobustness;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL45;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.KHRRobustness;
+import org.lwjgl.swt.jfr.CanvasEvents;
+import org.lwjgl.swt.jmx.CanvasMetrics;
 import org.lwjgl.system.Platform;
 
 /**
@@ -14,12 +30,60 @@ import org.lwjgl.system.Platform;
  * @author Kai Burjack
  */
 public class GLCanvas extends Canvas {
+    GLData requested;
     GLData effective;
     long context;
+    long xDisplay;
     long xWindow;
     long glWindow;
+    long fbConfig;
+    /**
+     * The first canvas of the share group this canvas' context belongs to, as established via {@link GLData#shareContext}.
+     */
+    GLCanvas shareGroup;
+    /**
+     * The canvases whose share group this canvas is the first of, and the number of running {@link GLWorkerService} instances in that
+     * share group. While there are any, the context of this canvas must not be destroyed, since a new one could not join the group.
+     */
+    final List<GLCanvas> shareDependents = new ArrayList<GLCanvas>();
+    final AtomicInteger shareWorkers = new AtomicInteger();
+    /**
+     * Whether the platform has added its listeners to this canvas. They must only be added once, since they stay in place when the
+     * context is destroyed and created again.
+     */
+    boolean platformListeners;
+    long swapCount;
+    long presentedPixels;
+    boolean partialPresent;
+    private FrameLatencyLimiter frameLatencyLimiter;
+    private int maxFramesInFlight;
+    private GLDebugOutput debugOutput;
+    private GLFrameStatistics frameStatistics;
+    private GLFramePacer framePacer;
+    private GLMemoryMetrics memoryMetrics;
+    private GLPointerInput pointerInput;
+    private Listener lazyListener;
+    private boolean contextCreated;
+    private GLSuspendPolicy suspendPolicy;
+    private final List<GLResetListener> resetListeners = new ArrayList<GLResetListener>();
+    private long resetCount;
+    private boolean contextLost;
+    private final List<Runnable> readyListeners = new ArrayList<Runnable>();
+    private volatile Thread creationThread;
+    private volatile long createdContext;
+    private volatile Throwable creationError;
+    private static final int PREPARE = 0, CONTEXT = 1, PROBE = 2, ATTACH = 3;
+    /**
+     * The time spent in the phases of the last context creation in nanoseconds, indexed by {@link #PREPARE}, {@link #CONTEXT},
+     * {@link #PROBE} and {@link #ATTACH}. Written by the creation thread before it terminates.
+     */
+    private final long[] createPhases = new long[4];
+    private Object createEvent;
+    private Object resizeEvent;
+    private Object disposeEvent;
+    private CanvasMetrics metrics;
 
-    private static PlatformGLCanvas platformCanvas;
+    static PlatformGLCanvas platformCanvas;
     static {
         String platformClassName;
         switch (Platform.get()) {
@@ -69,8 +133,357 @@ public class GLCanvas extends Canvas {
         }
         if (data == null)
             SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        requested = data;
         effective = new GLData();
-        context = platformCanvas.create(this, data, effective);
+        shareGroup = data.shareContext != null ? data.shareContext.shareGroup : this;
+        if (shareGroup != this) {
+            shareGroup.shareDependents.add(this);
+            addListener(SWT.Dispose, event -> shareGroup.shareDependents.remove(this));
+        }
+        addListener(SWT.Resize, event -> {
+            // a pending resize without a swap in between is reported at its size
+            if (resizeEvent != null) {
+                Rectangle clientArea = getClientArea();
+                CanvasEvents.endResize(resizeEvent, this, clientArea.width, clientArea.height);
+            }
+            resizeEvent = CanvasEvents.beginResize();
+            if (metrics != null) {
+                Rectangle clientArea = DPIUtil.autoScaleUp(getClientArea());
+                metrics.setSize(clientArea.width, clientArea.height, true);
+            }
+        });
+        addListener(SWT.Dispose, event -> {
+            // runs before the platform's dispose listener destroys the context
+            disposeEvent = CanvasEvents.beginDispose();
+            if (!contextCreated)
+                CanvasEvents.endDispose(disposeEvent, this);
+        });
+        if (data.asyncCreation)
+            addListener(SWT.Dispose, event -> abandonCreation());
+        if (data.lazyCreation) {
+            lazyListener = event -> {
+                if (isVisible())
+                    createContext();
+            };
+            addListener(SWT.Paint, lazyListener);
+        } else {
+            createContext();
+        }
+    }
+
+    /**
+     * Create the native context if this has not happened yet.
+     */
+    void createContext() {
+        if (context != 0L)
+            return;
+        if (creationThread != null) {
+            finishCreation();
+            return;
+        }
+        if (lazyListener != null) {
+            removeListener(SWT.Paint, lazyListener);
+            lazyListener = null;
+        }
+        if (requested.shareContext != null)
+            requested.shareContext.awaitContext();
+        boolean recreated = contextCreated;
+        if (recreated)
+            effective = new GLData();
+        Object event = CanvasEvents.beginCreate();
+        long time = System.nanoTime();
+        boolean phased = platformCanvas.prepareCreate(this, requested);
+        long prepared = System.nanoTime();
+        createPhases[PREPARE] = prepared - time;
+        if (phased && requested.asyncCreation && platformCanvas.isDisplayThreadSafe(this)) {
+            createEvent = event;
+            Display display = getDisplay();
+            Thread thread = new Thread(() -> createOffThread(display), "GLCanvas context creation");
+            thread.setDaemon(true);
+            creationThread = thread;
+            thread.start();
+            return;
+        }
+        if (phased) {
+            long ctx;
+            try {
+                ctx = platformCanvas.createContext(this, requested, effective);
+            } catch (SWTException e) {
+                // a canvas whose context is recreated stays usable for another attempt
+                if (!recreated)
+                    dispose();
+                throw e;
+            }
+            time = System.nanoTime();
+            createPhases[CONTEXT] = time - prepared;
+            platformCanvas.attachContext(this, requested, ctx);
+            context = ctx;
+            createPhases[ATTACH] = System.nanoTime() - time;
+        } else {
+            context = platformCanvas.create(this, requested, effective);
+            createPhases[CONTEXT] = System.nanoTime() - prepared;
+            createPhases[ATTACH] = 0L;
+        }
+        time = System.nanoTime();
+        if (requested.probeRenderer) {
+            platformCanvas.makeCurrent(this, context);
+            effective.probeRenderer = true;
+            effective.renderer = GLRendererInfo.probe(this);
+        }
+        createPhases[PROBE] = System.nanoTime() - time;
+        CanvasEvents.endCreate(event, this, false, createPhases[PREPARE], createPhases[CONTEXT], createPhases[PROBE], createPhases[ATTACH]);
+        contextCreated(recreated);
+    }
+
+    /**
+     * Create the native context if this has not happened yet and wait for it if it is being created on a background thread.
+     */
+    void awaitContext() {
+        if (suspendPolicy != null && suspendPolicy.isSuspended()) {
+            // let the policy recreate the context, so that it reports the recreation to its listener
+            suspendPolicy.resume();
+            return;
+        }
+        createContext();
+        if (creationThread != null)
+            finishCreation();
+    }
+
+    /**
+     * Wait for a background creation that is still running when the canvas is disposed and destroy its context.
+     */
+    private void abandonCreation() {
+        if (creationThread == null)
+            return;
+        try {
+            creationThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        creationThread = null;
+        if (createdContext != 0L)
+            platformCanvas.deleteContext(this, createdContext);
+        createdContext = 0L;
+    }
+
+    /**
+     * Choose the framebuffer configuration, create the context and probe the renderer on a background thread, then let the SWT thread
+     * attach the context.
+     */
+    private void createOffThread(Display display) {
+        createPhases[PROBE] = 0L;
+        try {
+            long time = System.nanoTime();
+            long ctx = platformCanvas.createContext(this, requested, effective);
+            createdContext = ctx;
+            long created = System.nanoTime();
+            createPhases[CONTEXT] = created - time;
+            // a context driving other canvases may be current on the SWT thread, so leave it alone
+            if (!effective.singleContext) {
+                long drawable = platformCanvas.createWorkerDrawable(this);
+                try {
+                    platformCanvas.makeWorkerCurrent(this, drawable, ctx);
+                    // let the driver load and initialize itself here rather than on the first makeCurrent on the SWT thread
+                    GL.createCapabilities();
+                    if (requested.probeRenderer) {
+                        effective.probeRenderer = true;
+                        effective.renderer = GLRendererInfo.probe(this);
+                    }
+                } finally {
+                    GL.setCapabilities(null);
+                    platformCanvas.makeWorkerCurrent(this, 0L, 0L);
+                    platformCanvas.deleteWorker(this, drawable, 0L);
+                }
+                createPhases[PROBE] = System.nanoTime() - created;
+            }
+        } catch (Throwable t) {
+            creationError = t;
+        }
+        if (!display.isDisposed()) {
+            display.asyncExec(() -> {
+                if (!isDisposed())
+                    createContext();
+            });
+        }
+    }
+
+    /**
+     * Wait for the background thread started by {@link #createContext()} and attach its context on the SWT thread.
+     */
+    private void finishCreation() {
+        Thread thread = creationThread;
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        creationThread = null;
+        long ctx = createdContext;
+        createdContext = 0L;
+        Throwable error = creationError;
+        creationError = null;
+        if (error != null) {
+            if (ctx != 0L)
+                platformCanvas.deleteContext(this, ctx);
+            if (!contextCreated)
+                dispose();
+            if (error instanceof RuntimeException)
+                throw (RuntimeException) error;
+            if (error instanceof Error)
+                throw (Error) error;
+            throw new SWTException(error.toString());
+        }
+        long time = System.nanoTime();
+        platformCanvas.attachContext(this, requested, ctx);
+        context = ctx;
+        createPhases[ATTACH] = System.nanoTime() - time;
+        if (requested.probeRenderer && effective.renderer == null) {
+            time = System.nanoTime();
+            platformCanvas.makeCurrent(this, context);
+            effective.probeRenderer = true;
+            effective.renderer = GLRendererInfo.probe(this);
+            createPhases[PROBE] += System.nanoTime() - time;
+        }
+        CanvasEvents.endCreate(createEvent, this, true, createPhases[PREPARE], createPhases[CONTEXT], createPhases[PROBE],
+                createPhases[ATTACH]);
+        createEvent = null;
+        contextCreated(contextCreated);
+    }
+
+    private void contextCreated(boolean recreated) {
+        if (!recreated) {
+            addListener(SWT.Dispose, event -> {
+                // the platform's dispose listener has already destroyed the context
+                if (debugOutput != null) {
+                    debugOutput.dispose();
+                    debugOutput = null;
+                }
+                CanvasEvents.endDispose(disposeEvent, this);
+                if (metrics != null)
+                    metrics.unregister();
+            });
+            metrics = CanvasMetrics.register(this, effective.toString(), framebufferBytesPerPixel());
+            if (metrics != null) {
+                Rectangle clientArea = DPIUtil.autoScaleUp(getClientArea());
+                metrics.setSize(clientArea.width, clientArea.height, false);
+            }
+        } else if (metrics != null) {
+            metrics.setConfiguration(effective.toString());
+        }
+        contextCreated = true;
+        effective.lazyCreation = requested.lazyCreation;
+        effective.asyncCreation = requested.asyncCreation;
+        if (requested.lazyCreation || requested.asyncCreation || recreated) {
+            // fit the drawable to the current size, which was set before the context existed
+            platformCanvas.fitDrawable(this);
+        }
+        // a new drawable starts out with the platform's default pointer motion delivery
+        if (pointerInput != null)
+            platformCanvas.setHighRatePointerInput(this, true);
+        for (Runnable listener : readyListeners.toArray(new Runnable[readyListeners.size()]))
+            listener.run();
+    }
+
+    /**
+     * Returns whether the native context of this canvas has been created, so that it can be made current without blocking.
+     * <p>
+     * This is <code>false</code> while the context is still being created on a background thread via {@link GLData#asyncCreation}, while
+     * its creation is deferred via {@link GLData#lazyCreation} and while it is destroyed by a {@link GLSuspendPolicy}.
+     * 
+     * @return whether the canvas is ready for rendering
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public boolean isReady() {
+        checkWidget();
+        return context != 0L;
+    }
+
+    /**
+     * Adds a listener that is run on the SWT thread every time the native context of this canvas has been created, including after it
+     * has been recreated. If the canvas is {@link #isReady() ready} already, the listener is run immediately as well.
+     * 
+     * @param listener
+     *            the listener
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void addReadyListener(Runnable listener) {
+        checkWidget();
+        if (listener == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        readyListeners.add(listener);
+        if (context != 0L)
+            listener.run();
+    }
+
+    /**
+     * Removes a listener added via {@link #addReadyListener(Runnable)}.
+     * 
+     * @param listener
+     *            the listener
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void removeReadyListener(Runnable listener) {
+        checkWidget();
+        readyListeners.remove(listener);
+    }
+
+    /**
+     * @return the bytes per pixel of all color, depth and stencil buffers and samples of the requested framebuffer
+     */
+    long framebufferBytesPerPixel() {
+        GLData data = requested;
+        long color = (data.redSize + data.greenSize + data.blueSize + data.alphaSize + 7) / 8 * (data.doubleBuffer ? 2 : 1);
+        long depthStencil = (data.depthSize + data.stencilSize + 7) / 8;
+        return (color + depthStencil) * Math.max(1, data.samples);
+    }
+
+    /**
+     * Destroy the native context and drawable, releasing all helpers bound to the context, so that {@link #createContext()} can
+     * recreate them later. The frames-in-flight limit and memory metrics are kept and carry over via {@link #contextRecreated()}.
+     */
+    void destroyContext() {
+        if (context == 0L)
+            return;
+        platformCanvas.makeCurrent(this, context);
+        if (debugOutput != null) {
+            debugOutput.free();
+            debugOutput = null;
+        }
+        if (frameLatencyLimiter != null) {
+            frameLatencyLimiter.free();
+            frameLatencyLimiter = null;
+        }
+        if (frameStatistics != null) {
+            frameStatistics.free();
+            frameStatistics = null;
+        }
+        platformCanvas.deleteContext(this, context);
+        context = 0L;
+        partialPresent = false;
+    }
+
+    /**
+     * Create the capabilities of a recreated context, which must be current, and restore the helpers that carry over from the destroyed
+     * one.
+     */
+    void contextRecreated() {
+        GL.createCapabilities();
+        if (maxFramesInFlight > 0)
+            frameLatencyLimiter = new FrameLatencyLimiter(maxFramesInFlight);
     }
 
     /**
@@ -84,6 +497,7 @@ public class GLCanvas extends Canvas {
      */
     public GLData getGLData() {
         checkWidget();
+        awaitContext();
         return effective;
     }
 
@@ -100,7 +514,7 @@ public class GLCanvas extends Canvas {
      */
     public boolean isCurrent() {
         checkWidget();
-        return platformCanvas.isCurrent(context);
+        return context != 0L && platformCanvas.isCurrent(this, context);
     }
 
     /**
@@ -114,9 +528,18 @@ public class GLCanvas extends Canvas {
      */
     public void setCurrent() {
         checkWidget();
-        if (platformCanvas.isCurrent(context))
+        if (suspendPolicy != null && suspendPolicy.isSuspended()) {
+            suspendPolicy.resume();
+            return;
+        }
+        awaitContext();
+        if (platformCanvas.isCurrent(this, context))
             return;
+        Object event = CanvasEvents.beginMakeCurrent();
         platformCanvas.makeCurrent(this, context);
+        CanvasEvents.endMakeCurrent(event, this);
+        if (metrics != null)
+            metrics.madeCurrent();
     }
 
     /**
@@ -129,11 +552,593 @@ public class GLCanvas extends Canvas {
      */
     public void swapBuffers() {
         checkWidget();
+        if (context == 0L)
+            return;
+        beforeSwap();
+        Object event = CanvasEvents.beginSwap();
+        long time = System.nanoTime();
         platformCanvas.swapBuffers(this);
+        afterSwap(null, event, time);
+    }
+
+    /**
+     * Presents only the given damaged regions of the back buffer, leaving the rest of the visible surface unchanged.
+     * <p>
+     * On Linux the damaged regions are presented via <code>glXCopySubBufferMESA</code>, so the back buffer keeps its contents. This
+     * requires a double-buffered context and <code>GLX_MESA_copy_sub_buffer</code>. Otherwise, and on other platforms, a full
+     * {@link #swapBuffers()} is performed. The context of this canvas must be current.
+     * 
+     * @param damage
+     *          the damaged regions in widget coordinates. If none are given, the full surface is presented.
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void swapBuffers(Rectangle... damage) {
+        checkWidget();
+        if (damage == null || damage.length == 0 || context == 0L) {
+            swapBuffers();
+            return;
+        }
+        beforeSwap();
+        Object event = CanvasEvents.beginSwap();
+        long time = System.nanoTime();
+        boolean partial = platformCanvas.swapBuffers(this, damage);
+        afterSwap(partial ? damage : null, event, time);
+    }
+
+    private void beforeSwap() {
+        if (framePacer != null)
+            framePacer.beforeSwap();
+        if (frameStatistics != null)
+            frameStatistics.beforeSwap();
+    }
+
+    private void afterSwap(Rectangle[] damage, Object swapEvent, long swapStart) {
+        swapCount++;
+        partialPresent = damage != null;
+        if (damage == null) {
+            Rectangle clientArea = getClientArea();
+            presentedPixels = (long) clientArea.width * clientArea.height;
+        } else {
+            long pixels = 0L;
+            for (int i = 0; i < damage.length; i++)
+                pixels += (long) damage[i].width * damage[i].height;
+            presentedPixels = pixels;
+        }
+        if (frameLatencyLimiter != null)
+            frameLatencyLimiter.afterSwap();
+        CanvasEvents.endSwap(swapEvent, this, damage != null, presentedPixels);
+        if (metrics != null)
+            metrics.presented(swapStart, System.nanoTime());
+        if (resizeEvent != null) {
+            Rectangle clientArea = getClientArea();
+            CanvasEvents.endResize(resizeEvent, this, clientArea.width, clientArea.height);
+            resizeEvent = null;
+        }
+        if (frameStatistics != null)
+            frameStatistics.afterSwap();
+        if (framePacer != null)
+            framePacer.afterSwap();
+        if (memoryMetrics != null)
+            memoryMetrics.afterSwap();
+        if (requested.robustness && requested.loseContextOnReset)
+            checkReset();
+    }
+
+    private static int getGraphicsResetStatus(GLCapabilities caps) {
+        if (caps.OpenGL45)
+            return GL45.glGetGraphicsResetStatus();
+        if (caps.GL_ARB_robustness)
+            return ARBRobustness.glGetGraphicsResetStatusARB();
+        if (caps.GL_KHR_robustness)
+            return KHRRobustness.glGetGraphicsResetStatus();
+        return GL11.GL_NO_ERROR;
+    }
+
+    private void checkReset() {
+        if (contextLost)
+            return;
+        GLCapabilities caps;
+        try {
+            caps = GL.getCapabilities();
+        } catch (IllegalStateException e) {
+            // no capabilities have been created for the current thread
+            return;
+        }
+        int status = getGraphicsResetStatus(caps);
+        if (status == GL11.GL_NO_ERROR)
+            return;
+        // objects are shared by all contexts of the share group, so the whole group is rebuilt, the first canvas first
+        List<GLCanvas> group = new ArrayList<GLCanvas>();
+        if (!shareGroup.isDisposed() && shareGroup.context != 0L)
+            group.add(shareGroup);
+        for (GLCanvas dependent : shareGroup.shareDependents)
+            if (dependent.context != 0L)
+                group.add(dependent);
+        if (!group.contains(this))
+            group.add(this);
+        for (GLCanvas canvas : group) {
+            canvas.resetCount++;
+            for (GLResetListener listener : canvas.resetListeners.toArray(new GLResetListener[canvas.resetListeners.size()]))
+                listener.contextLost(canvas, status);
+        }
+        if (!platformCanvas.canRecreateContext()) {
+            // the canvases stay unusable, report the reset only once
+            for (GLCanvas canvas : group)
+                canvas.contextLost = true;
+            return;
+        }
+        // a new context should only be created once the reset has completed
+        long deadline = System.nanoTime() + 2000000000L;
+        while (getGraphicsResetStatus(caps) != GL11.GL_NO_ERROR && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (int i = group.size() - 1; i >= 0; i--)
+            group.get(i).destroyContext();
+        List<GLCanvas> rebuilt = new ArrayList<GLCanvas>();
+        for (GLCanvas canvas : group) {
+            try {
+                // not via awaitContext(), which would let a suspend policy resume the canvas
+                canvas.createContext();
+                if (canvas.creationThread != null)
+                    canvas.finishCreation();
+            } catch (RuntimeException e) {
+                // leave the canvas without a context rather than disposing it from within swapBuffers()
+                canvas.contextLost = true;
+                continue;
+            }
+            if (canvas.context != 0L)
+                rebuilt.add(canvas);
+        }
+        // notify this canvas last, so that its context is current when swapBuffers() returns
+        if (rebuilt.remove(this))
+            rebuilt.add(this);
+        for (GLCanvas canvas : rebuilt) {
+            platformCanvas.makeCurrent(canvas, canvas.context);
+            canvas.contextRecreated();
+            for (GLResetListener listener : canvas.resetListeners.toArray(new GLResetListener[canvas.resetListeners.size()]))
+                listener.contextRestored(canvas);
+        }
+    }
+
+    /**
+     * Adds a listener notified when a graphics reset is detected and after the context has been rebuilt.
+     * <p>
+     * Resets are only detected when {@link GLData#robustness} and {@link GLData#loseContextOnReset} were requested. Then every
+     * {@link #swapBuffers()} queries <code>glGetGraphicsResetStatus</code> and, after a reset, destroys the lost context and drawable
+     * and creates new ones with the same {@link GLData} for this canvas and all other canvases of its share group, beginning with the
+     * first canvas of the group. The listeners of each canvas are notified. If a context cannot be rebuilt, its canvas is left without
+     * one instead of being disposed. Debug output and frame statistics are disabled by the rebuild,
+     * while memory metrics and the frames-in-flight limit carry over to the new context. Contexts can only be rebuilt on Linux and Windows; elsewhere the listener is
+     * only notified that the context was lost.
+     * 
+     * @param listener
+     *            the {@link GLResetListener}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void addResetListener(GLResetListener listener) {
+        checkWidget();
+        if (listener == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        resetListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added via {@link #addResetListener(GLResetListener)}.
+     * 
+     * @param listener
+     *            the {@link GLResetListener}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void removeResetListener(GLResetListener listener) {
+        checkWidget();
+        resetListeners.remove(listener);
+    }
+
+    /**
+     * Returns the number of graphics resets detected and recovered from.
+     * 
+     * @return the number of resets
+     */
+    public long getResetCount() {
+        checkWidget();
+        return resetCount;
+    }
+
+    /**
+     * Returns the number of pixels presented by the last {@link #swapBuffers()} or {@link #swapBuffers(Rectangle...)} call, in widget
+     * coordinates.
+     * 
+     * @return the number of presented pixels
+     */
+    public long getPresentedPixels() {
+        checkWidget();
+        return presentedPixels;
+    }
+
+    /**
+     * Returns the age of the current back buffer, as described by
+     * <a href="https://www.khronos.org/registry/OpenGL/extensions/EXT/GLX_EXT_buffer_age.txt">GLX_EXT_buffer_age</a>.
+     * <p>
+     * An age of <code>n</code> means the back buffer contains the frame presented <code>n</code> swaps ago, so only the regions damaged
+     * since then need to be repainted. An age of 0 means the contents are undefined or the age is unknown, in which case everything must be
+     * repainted. The context of this canvas must be current.
+     * <p>
+     * After {@link #swapBuffers(Rectangle...)} presented only the damaged regions, the back buffer still holds the frame just presented and
+     * the age is 1, regardless of what the platform reports for the last full swap.
+     * 
+     * @return the buffer age
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public int getBufferAge() {
+        checkWidget();
+        awaitContext();
+        if (partialPresent)
+            return 1;
+        return platformCanvas.getBufferAge(this);
+    }
+
+    /**
+     * Limit the number of frames the driver may queue ahead of the GPU.
+     * <p>
+     * When enabled, {@link #swapBuffers()} inserts a fence sync object after each swap and waits for the fence of the frame
+     * <code>maxFramesInFlight</code> frames ago before returning. This trades throughput for lower input latency. It requires OpenGL 3.2 or
+     * <code>GL_ARB_sync</code> and the context of this canvas must be current.
+     * 
+     * @param maxFramesInFlight
+     *            the maximum number of frames in flight, or 0 to disable limiting
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void setMaxFramesInFlight(int maxFramesInFlight) {
+        checkWidget();
+        if (maxFramesInFlight < 0)
+            throw new IllegalArgumentException("Invalid number of frames in flight");
+        awaitContext();
+        if (frameLatencyLimiter != null) {
+            frameLatencyLimiter.free();
+            frameLatencyLimiter = null;
+        }
+        this.maxFramesInFlight = 0;
+        if (maxFramesInFlight > 0)
+            frameLatencyLimiter = new FrameLatencyLimiter(maxFramesInFlight);
+        this.maxFramesInFlight = maxFramesInFlight;
+    }
+
+    /**
+     * Returns the maximum number of frames in flight set via {@link #setMaxFramesInFlight(int)}.
+     * 
+     * @return the maximum number of frames in flight, or 0 if not limited
+     */
+    public int getMaxFramesInFlight() {
+        checkWidget();
+        return maxFramesInFlight;
+    }
+
+    /**
+     * Returns the number of frames that were still queued on the GPU at the last {@link #swapBuffers()}, as measured when
+     * {@link #setMaxFramesInFlight(int) limiting frames in flight}.
+     * 
+     * @return the measured queue depth, or 0 if not limited
+     */
+    public int getFrameQueueDepth() {
+        checkWidget();
+        return frameLatencyLimiter != null ? frameLatencyLimiter.getQueueDepth() : 0;
+    }
+
+    /**
+     * Returns the time the last {@link #swapBuffers()} waited for the GPU because of {@link #setMaxFramesInFlight(int)}.
+     * 
+     * @return the wait time in nanoseconds
+     */
+    public long getFrameLatencyWaitNanos() {
+        checkWidget();
+        return frameLatencyLimiter != null ? frameLatencyLimiter.getLastWaitNanos() : 0L;
+    }
+
+    /**
+     * Returns the average time {@link #swapBuffers()} waited for the GPU because of {@link #setMaxFramesInFlight(int)}.
+     * 
+     * @return the average wait time in nanoseconds
+     */
+    public long getAverageFrameLatencyWaitNanos() {
+        checkWidget();
+        return frameLatencyLimiter != null ? frameLatencyLimiter.getAverageWaitNanos() : 0L;
+    }
+
+    /**
+     * Installs a <code>glDebugMessageCallback</code> on this canvas' context that hands messages to the given listener on a background
+     * thread, see {@link GLDebugOutput}. The context must be current.
+     * <p>
+     * Messages are only generated reliably for contexts created with {@link GLData#debug}. Severity filtering and sampling can be changed
+     * at any time via the returned {@link GLDebugOutput} without touching the context.
+     * 
+     * @param listener
+     *            the listener receiving the messages
+     * @return the {@link GLDebugOutput}
+     * @exception UnsupportedOperationException
+     *                if neither OpenGL 4.3 nor GL_KHR_debug is available
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLDebugOutput enableDebugOutput(GLDebugOutput.Listener listener) {
+        checkWidget();
+        if (listener == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        disableDebugOutput();
+        debugOutput = new GLDebugOutput(listener);
+        return debugOutput;
+    }
+
+    /**
+     * Removes the callback installed via {@link #enableDebugOutput(GLDebugOutput.Listener)}, if any, after delivering all pending
+     * messages. The context must be current.
+     * 
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void disableDebugOutput() {
+        checkWidget();
+        if (debugOutput != null) {
+            debugOutput.free();
+            debugOutput = null;
+        }
+    }
+
+    /**
+     * Starts collecting per-frame statistics of this canvas, see {@link GLFrameStatistics}. The context must be current.
+     * 
+     * @return the {@link GLFrameStatistics}, which is updated on every {@link #swapBuffers()}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLFrameStatistics enableFrameStatistics() {
+        checkWidget();
+        if (frameStatistics == null)
+            frameStatistics = new GLFrameStatistics();
+        return frameStatistics;
+    }
+
+    /**
+     * Stops collecting per-frame statistics started via {@link #enableFrameStatistics()}. The context must be current.
+     * 
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void disableFrameStatistics() {
+        checkWidget();
+        if (frameStatistics != null) {
+            frameStatistics.free();
+            frameStatistics = null;
+        }
+    }
+
+    /**
+     * Returns the per-frame statistics of this canvas.
+     * 
+     * @return the {@link GLFrameStatistics}, or <code>null</code> if not {@link #enableFrameStatistics() enabled}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLFrameStatistics getFrameStatistics() {
+        checkWidget();
+        return frameStatistics;
+    }
+
+    /**
+     * Starts pacing the frames of this canvas to the given frame rate, see {@link GLFramePacer}. The application must call
+     * {@link GLFramePacer#waitForFrame()} before rendering each frame.
+     * <p>
+     * This works with every driver, unlike {@link #delayBeforeSwapNV(float)}, and with or without vsync.
+     * 
+     * @param targetFps
+     *            the number of frames per second
+     * @return the {@link GLFramePacer}, which is updated on every {@link #swapBuffers()}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLFramePacer enableFramePacer(double targetFps) {
+        checkWidget();
+        if (framePacer == null)
+            framePacer = new GLFramePacer(this, targetFps);
+        else
+            framePacer.setTargetFps(targetFps);
+        return framePacer;
+    }
+
+    /**
+     * Stops pacing frames started via {@link #enableFramePacer(double)}.
+     * 
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void disableFramePacer() {
+        checkWidget();
+        framePacer = null;
+    }
+
+    /**
+     * Returns the frame pacer of this canvas.
+     * 
+     * @return the {@link GLFramePacer}, or <code>null</code> if not {@link #enableFramePacer(double) enabled}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLFramePacer getFramePacer() {
+        checkWidget();
+        return framePacer;
+    }
+
+    /**
+     * Starts sampling the video memory metrics of this canvas' context, see {@link GLMemoryMetrics}. The context must be current.
+     * 
+     * @param intervalMillis
+     *            the minimum time between two samples taken in {@link #swapBuffers()}, in milliseconds
+     * @param listener
+     *            notified after each sample, or <code>null</code>
+     * @return the {@link GLMemoryMetrics}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLMemoryMetrics enableMemoryMetrics(long intervalMillis, GLMemoryMetrics.Listener listener) {
+        checkWidget();
+        if (intervalMillis < 0L)
+            throw new IllegalArgumentException("Invalid sampling interval");
+        awaitContext();
+        memoryMetrics = new GLMemoryMetrics(this, intervalMillis, listener);
+        return memoryMetrics;
+    }
+
+    /**
+     * Stops sampling the video memory metrics started via {@link #enableMemoryMetrics(long, GLMemoryMetrics.Listener)}.
+     * 
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void disableMemoryMetrics() {
+        checkWidget();
+        memoryMetrics = null;
+    }
+
+    /**
+     * Returns the video memory metrics of this canvas' context.
+     * 
+     * @return the {@link GLMemoryMetrics}, or <code>null</code> if not {@link #enableMemoryMetrics(long, GLMemoryMetrics.Listener) enabled}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLMemoryMetrics getMemoryMetrics() {
+        checkWidget();
+        return memoryMetrics;
+    }
+
+    /**
+     * Switches this canvas to high-rate pointer input and starts buffering every pointer event with its timestamp, see
+     * {@link GLPointerInput}. The renderer should {@link GLPointerInput#drain(GLPointerInput.Sink) drain} the events once per frame.
+     * 
+     * @param capacity
+     *            the maximum number of events buffered between two drains
+     * @return the {@link GLPointerInput}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLPointerInput enablePointerInput(int capacity) {
+        checkWidget();
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Invalid capacity");
+        awaitContext();
+        disablePointerInput();
+        pointerInput = new GLPointerInput(this, capacity);
+        // fails without a drawable while the context is suspended; contextCreated() applies it once there is one again
+        platformCanvas.setHighRatePointerInput(this, true);
+        return pointerInput;
+    }
+
+    /**
+     * Stops buffering pointer events started via {@link #enablePointerInput(int)} and restores the default pointer motion delivery.
+     * 
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void disablePointerInput() {
+        checkWidget();
+        if (pointerInput != null) {
+            pointerInput.dispose();
+            pointerInput = null;
+            platformCanvas.setHighRatePointerInput(this, false);
+        }
+    }
+
+    /**
+     * Installs a policy that releases the GPU resources of this canvas while it stays hidden, see {@link GLSuspendPolicy}. A previously
+     * installed policy is removed, resuming the canvas if necessary.
+     * <p>
+     * When the context is destroyed, debug output and frame statistics are disabled and must be enabled again when the canvas is resumed.
+     * Memory metrics and the frames-in-flight limit carry over to the new context.
+     * 
+     * @param policy
+     *            the {@link GLSuspendPolicy}, or <code>null</code> to never suspend this canvas
+     * @throws UnsupportedOperationException
+     *             if the policy uses {@link GLSuspendPolicy.Mode#DESTROY_CONTEXT} and contexts cannot be recreated on this platform
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void setSuspendPolicy(GLSuspendPolicy policy) {
+        checkWidget();
+        if (policy != null)
+            policy.checkSupported();
+        if (suspendPolicy != null)
+            suspendPolicy.detach();
+        suspendPolicy = policy;
+        if (policy != null)
+            policy.attach(this);
+    }
+
+    /**
+     * Returns the policy installed via {@link #setSuspendPolicy(GLSuspendPolicy)}.
+     * 
+     * @return the {@link GLSuspendPolicy}, or <code>null</code>
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLSuspendPolicy getSuspendPolicy() {
+        checkWidget();
+        return suspendPolicy;
     }
 
     /**
      * Blocks until <code>seconds</code> seconds before a synchronized swap would occur.
+     * <p>
+     * This requires <code>GLX_NV_delay_before_swap</code> or <code>WGL_NV_delay_before_swap</code>. See
+     * {@link GLFramePacer#delayBeforeSwap(long)} for a software alternative.
      * 
      * @param seconds
      *          the seconds to wait until a synchronized swap would occur
@@ -141,7 +1146,92 @@ public class GLCanvas extends Canvas {
      */
     public boolean delayBeforeSwapNV(float seconds) {
         checkWidget();
+        awaitContext();
         return platformCanvas.delayBeforeSwapNV(this, seconds);
     }
 
+    /**
+     * Queries the current vertical retrace timing of this canvas' drawable, as described by
+     * <a href="https://www.khronos.org/registry/OpenGL/extensions/OML/GLX_OML_sync_control.txt">GLX_OML_sync_control</a>.
+     * <p>
+     * The three values stored into <code>ustMscSbc</code> are the unadjusted system time (UST) of the last vertical retrace in
+     * microseconds, the media stream counter (MSC) counting vertical retraces, and the swap buffer counter (SBC) counting completed swaps.
+     * When only <code>GLX_SGI_video_sync</code> is available, the UST is the time of the query and the SBC counts the calls to
+     * {@link #swapBuffers()}. The context of this canvas must be current.
+     * 
+     * @param ustMscSbc
+     *          an array of at least three elements receiving UST, MSC and SBC
+     * @return <code>true</code> if the values could be queried; <code>false</code> if neither extension is available
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public boolean getSyncValues(long[] ustMscSbc) {
+        checkWidget();
+        if (ustMscSbc == null || ustMscSbc.length < 3)
+            SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+        awaitContext();
+        return platformCanvas.getSyncValues(this, ustMscSbc);
+    }
+
+    /**
+     * Swaps the front and back color buffers at the first vertical retrace whose MSC is at least <code>targetMsc</code>, or, once that
+     * has passed, at the next retrace where <code>MSC % divisor == remainder</code>.
+     * <p>
+     * With only <code>GLX_SGI_video_sync</code> available this blocks until the target retrace has been reached and then swaps. The
+     * context of this canvas must be current.
+     * 
+     * @param targetMsc
+     *          the MSC of the vertical retrace at which to swap
+     * @param divisor
+     *          the divisor, or 0 to only use <code>targetMsc</code>
+     * @param remainder
+     *          the remainder
+     * @return the SBC the swap will complete at, or <code>-1</code> if scheduled swaps are unsupported
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public long swapBuffersMsc(long targetMsc, long divisor, long remainder) {
+        checkWidget();
+        if (context == 0L)
+            return -1L;
+        beforeSwap();
+        Object event = CanvasEvents.beginSwap();
+        long time = System.nanoTime();
+        long sbc = platformCanvas.swapBuffersMsc(this, targetMsc, divisor, remainder);
+        if (sbc != -1L)
+            afterSwap(null, event, time);
+        return sbc;
+    }
+
+    /**
+     * Blocks until the vertical retrace with MSC <code>targetMsc</code> (or, once that has passed, the next one where
+     * <code>MSC % divisor == remainder</code>) has started, and stores the sync values at that time into <code>ustMscSbc</code>. The
+     * context of this canvas must be current.
+     * 
+     * @param targetMsc
+     *          the MSC to wait for
+     * @param divisor
+     *          the divisor, or 0 to only use <code>targetMsc</code>
+     * @param remainder
+     *          the remainder
+     * @param ustMscSbc
+     *          an array of at least three elements receiving UST, MSC and SBC, see {@link #getSyncValues(long[])}
+     * @return <code>true</code> if the wait succeeded; <code>false</code> if neither extension is available
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public boolean waitForMsc(long targetMsc, long divisor, long remainder, long[] ustMscSbc) {
+        checkWidget();
+        if (ustMscSbc == null || ustMscSbc.length < 3)
+            SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+        awaitContext();
+        return platformCanvas.waitForMsc(this, targetMsc, divisor, remainder, ustMscSbc);
+    }
+
 }
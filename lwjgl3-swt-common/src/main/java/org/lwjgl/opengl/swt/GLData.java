@@ -1,5 +1,7 @@
 package org.lwjgl.opengl.swt;
 
+import java.util.Locale;
+
 /**
  * Drop-in replacement for SWT's {@link org.eclipse.swt.opengl.GLData} class.
  * 
@@ -160,5 +162,77 @@ public class GLData {
      * The default is <code>false</code>.
      */
     public boolean noErrorContext;
+    /**
+     * Whether to identify the renderer while creating the context and fill {@link #renderer} of the effective GLData returned by
+     * {@link GLCanvas#getGLData()}. This leaves the new context current. The default is <code>false</code>.
+     */
+    public boolean probeRenderer;
+    /**
+     * Whether to drive this canvas with the context of {@link #shareContext} itself instead of creating a new context sharing its objects.
+     * The canvases then only switch the drawable when being made current, which saves the memory of a context per canvas and makes
+     * switching between them cheaper. Since all GL state is shared, the viewport and other per-canvas state must be set after every
+     * {@link GLCanvas#setCurrent()}.
+     * <p>
+     * This is only supported with GLX and only when the framebuffer configuration chosen for this canvas is the one of
+     * {@link #shareContext}; otherwise a new context is created as usual. The effective GLData tells whether the context is shared. The
+     * default is <code>false</code>.
+     */
+    public boolean singleContext;
+    /**
+     * Whether to defer creating the native context until the canvas is first painted while visible, or until {@link GLCanvas#setCurrent()}
+     * or {@link GLCanvas#getGLData()} is called, whichever happens first. This makes creating many canvases of which only a few are
+     * visible cheap. A {@link #shareContext} is created first if it was deferred as well. The default is <code>false</code>.
+     */
+    public boolean lazyCreation;
+    /**
+     * Whether to choose the framebuffer configuration and create the native context on a background thread, so that the SWT thread is
+     * not blocked by the driver. Only realizing and attaching the native window happens on the SWT thread afterwards. The canvas becomes
+     * renderable asynchronously, which is signalled via {@link GLCanvas#addReadyListener(Runnable)}; {@link GLCanvas#setCurrent()} and
+     * {@link GLCanvas#getGLData()} wait for the creation to finish when called earlier. When {@link #probeRenderer} is requested, the
+     * renderer is probed on the background thread as well.
+     * <p>
+     * This is only supported with GLX, and only when Xlib has been initialized for multiple threads via <code>XInitThreads</code> before
+     * the SWT {@link org.eclipse.swt.widgets.Display} was created, since the background thread uses the display connection of GDK.
+     * Otherwise the context is created on the SWT thread as usual. The default is <code>false</code>.
+     */
+    public boolean asyncCreation;
+    /**
+     * The identification and quality tier of the renderer. This is only set in the effective GLData when {@link #probeRenderer} was
+     * requested.
+     */
+    public GLRendererInfo renderer;
+
+    /**
+     * Returns a one-line summary of the main attributes, as exposed via JMX.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(api == API.GLES ? "OpenGL ES " : "OpenGL ");
+        if (majorVersion > 0)
+            sb.append(majorVersion).append('.').append(minorVersion).append(' ');
+        if (profile != null)
+            sb.append(profile.name().toLowerCase(Locale.ROOT)).append(' ');
+        if (forwardCompatible)
+            sb.append("forward-compatible ");
+        if (debug)
+            sb.append("debug ");
+        if (robustness)
+            sb.append("robust ");
+        sb.append("RGBA ").append(redSize).append('/').append(greenSize).append('/').append(blueSize).append('/').append(alphaSize);
+        sb.append(", depth ").append(depthSize).append(", stencil ").append(stencilSize);
+        if (samples > 0)
+            sb.append(", samples ").append(samples);
+        if (sRGB)
+            sb.append(", sRGB");
+        sb.append(doubleBuffer ? ", double-buffered" : ", single-buffered");
+        if (swapInterval != null)
+            sb.append(", swap interval ").append(swapInterval);
+        if (shareContext != null)
+            sb.append(singleContext ? ", single context" : ", shared");
+        if (renderer != null)
+            sb.append(", ").append(renderer.renderer);
+        return sb.toString();
+    }
 
 }
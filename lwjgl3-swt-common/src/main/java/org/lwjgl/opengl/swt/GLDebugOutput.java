@@ -0,0 +1,294 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL43.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.GLDebugMessageCallback;
+
+/**
+ * Low-overhead sink for <a href="https://www.khronos.org/registry/OpenGL/extensions/KHR/KHR_debug.txt">KHR_debug</a> messages of a
+ * {@link GLCanvas}, obtained via {@link GLCanvas#enableDebugOutput(Listener)}.
+ * <p>
+ * The debug callback itself never allocates or blocks: it filters by severity and sampling rate, counts repeated messages per
+ * source/type/id and copies the message into a preallocated lock-free ring buffer. A background thread drains that buffer and delivers
+ * the messages to the {@link Listener}. During message storms, a repeated message is only enqueued when its count reaches a power of
+ * two, so the listener still sees how often it occurred. Messages that do not fit into the ring buffer are dropped and counted.
+ *
+ * @author Kai Burjack
+ */
+public class GLDebugOutput {
+
+    /**
+     * Receives debug messages on the drain thread.
+     */
+    public interface Listener {
+        /**
+         * Invoked for a debug message.
+         *
+         * @param source
+         *            the <code>GL_DEBUG_SOURCE_*</code> value
+         * @param type
+         *            the <code>GL_DEBUG_TYPE_*</code> value
+         * @param id
+         *            the message id
+         * @param severity
+         *            the <code>GL_DEBUG_SEVERITY_*</code> value
+         * @param message
+         *            the message, truncated to {@link GLDebugOutput#MAX_MESSAGE_LENGTH} bytes
+         * @param count
+         *            how often this source/type/id combination has occurred so far
+         */
+        void message(int source, int type, int id, int severity, String message, long count);
+    }
+
+    /**
+     * The maximum number of bytes stored per message.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 256;
+
+    private static final int CAPACITY = 1024;
+    private static final int COUNTERS = 4096;
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5L);
+
+    private final Listener listener;
+    private final GLDebugMessageCallback callback;
+    private final Thread drainThread;
+    private volatile boolean stopped;
+
+    /* Bounded multi-producer single-consumer ring, see Dmitry Vyukov's bounded MPMC queue */
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+    private final int[] sources = new int[CAPACITY];
+    private final int[] types = new int[CAPACITY];
+    private final int[] ids = new int[CAPACITY];
+    private final int[] severities = new int[CAPACITY];
+    private final long[] counts = new long[CAPACITY];
+    private final int[] lengths = new int[CAPACITY];
+    private final byte[] messages = new byte[CAPACITY * MAX_MESSAGE_LENGTH];
+
+    /* Open-addressing table of repetition counters keyed by source/type/id */
+    private final AtomicLongArray counterKeys = new AtomicLongArray(COUNTERS);
+    private final AtomicLongArray counterValues = new AtomicLongArray(COUNTERS);
+
+    private volatile int minSeverityRank;
+    private volatile int sampleRate = 1;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    GLDebugOutput(Listener listener) {
+        GLCapabilities caps = GL.getCapabilities();
+        if (!caps.OpenGL43 && !caps.GL_KHR_debug) {
+            throw new UnsupportedOperationException("Debug output requires OpenGL 4.3 or GL_KHR_debug");
+        }
+        this.listener = listener;
+        for (int i = 0; i < CAPACITY; i++)
+            sequences.set(i, i);
+        this.callback = GLDebugMessageCallback.create(this::callback);
+        glDebugMessageCallback(callback, NULL);
+        glEnable(GL_DEBUG_OUTPUT);
+        drainThread = new Thread(this::drain, "GLDebugOutput");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    private static int rank(int severity) {
+        switch (severity) {
+        case GL_DEBUG_SEVERITY_HIGH:
+            return 3;
+        case GL_DEBUG_SEVERITY_MEDIUM:
+            return 2;
+        case GL_DEBUG_SEVERITY_LOW:
+            return 1;
+        default:
+            return 0;
+        }
+    }
+
+    private void callback(int source, int type, int id, int severity, int length, long message, long userParam) {
+        if (rank(severity) < minSeverityRank)
+            return;
+        long n = received.incrementAndGet();
+        int rate = sampleRate;
+        if (rate > 1 && n % rate != 0)
+            return;
+        long count = count(source, type, id);
+        if (count > 1 && (count & (count - 1)) != 0) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        long pos;
+        int slot;
+        for (;;) {
+            pos = tail.get();
+            slot = (int) (pos & (CAPACITY - 1));
+            long seq = sequences.get(slot);
+            if (seq == pos) {
+                if (tail.compareAndSet(pos, pos + 1))
+                    break;
+            } else if (seq < pos) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        sources[slot] = source;
+        types[slot] = type;
+        ids[slot] = id;
+        severities[slot] = severity;
+        counts[slot] = count;
+        int len = Math.min(length < 0 ? MAX_MESSAGE_LENGTH : length, MAX_MESSAGE_LENGTH);
+        int offset = slot * MAX_MESSAGE_LENGTH;
+        int i = 0;
+        for (; i < len; i++) {
+            byte b = memGetByte(message + i);
+            if (b == 0)
+                break;
+            messages[offset + i] = b;
+        }
+        lengths[slot] = i;
+        sequences.set(slot, pos + 1);
+    }
+
+    private long count(int source, int type, int id) {
+        long key = ((long) (source & 0xFFFF) << 48 | (long) (type & 0xFFFF) << 32 | id & 0xFFFFFFFFL) + 1L;
+        int index = (int) ((key * 0x9E3779B97F4A7C15L) >>> 52) & (COUNTERS - 1);
+        for (int probe = 0; probe < COUNTERS; probe++) {
+            int i = (index + probe) & (COUNTERS - 1);
+            long k = counterKeys.get(i);
+            if (k == key || k == 0L && counterKeys.compareAndSet(i, 0L, key) || counterKeys.get(i) == key)
+                return counterValues.incrementAndGet(i);
+        }
+        // table full: treat as a new message every time
+        return 1L;
+    }
+
+    private void drain() {
+        while (!stopped) {
+            if (!drainOnce())
+                LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+        }
+        drainOnce();
+    }
+
+    private boolean drainOnce() {
+        boolean any = false;
+        for (;;) {
+            int slot = (int) (head & (CAPACITY - 1));
+            if (sequences.get(slot) != head + 1)
+                return any;
+            String message = new String(messages, slot * MAX_MESSAGE_LENGTH, lengths[slot], StandardCharsets.UTF_8);
+            int source = sources[slot], type = types[slot], id = ids[slot], severity = severities[slot];
+            long count = counts[slot];
+            sequences.set(slot, head + CAPACITY);
+            head++;
+            any = true;
+            try {
+                listener.message(source, type, id, severity, message, count);
+            } catch (RuntimeException e) {
+                // a faulty listener must not stop the drain thread
+            }
+        }
+    }
+
+    /**
+     * Only deliver messages of at least the given severity. This takes effect immediately without touching the context.
+     *
+     * @param severity
+     *            one of <code>GL_DEBUG_SEVERITY_NOTIFICATION</code>, <code>GL_DEBUG_SEVERITY_LOW</code>,
+     *            <code>GL_DEBUG_SEVERITY_MEDIUM</code> or <code>GL_DEBUG_SEVERITY_HIGH</code>
+     */
+    public void setMinSeverity(int severity) {
+        this.minSeverityRank = rank(severity);
+    }
+
+    /**
+     * Only process every <code>n</code>-th message passing the severity filter.
+     *
+     * @param n
+     *            the sampling rate, 1 to process every message
+     */
+    public void setSampleRate(int n) {
+        if (n < 1)
+            throw new IllegalArgumentException("Invalid sample rate");
+        this.sampleRate = n;
+    }
+
+    /**
+     * @return the number of messages that passed the severity filter
+     */
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    /**
+     * @return the number of messages dropped because the ring buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of repeated messages that were only counted
+     */
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+
+    /**
+     * Return how often the given message has been received so far.
+     *
+     * @param source
+     *            the <code>GL_DEBUG_SOURCE_*</code> value
+     * @param type
+     *            the <code>GL_DEBUG_TYPE_*</code> value
+     * @param id
+     *            the message id
+     * @return the count
+     */
+    public long getCount(int source, int type, int id) {
+        long key = ((long) (source & 0xFFFF) << 48 | (long) (type & 0xFFFF) << 32 | id & 0xFFFFFFFFL) + 1L;
+        int index = (int) ((key * 0x9E3779B97F4A7C15L) >>> 52) & (COUNTERS - 1);
+        for (int probe = 0; probe < COUNTERS; probe++) {
+            int i = (index + probe) & (COUNTERS - 1);
+            long k = counterKeys.get(i);
+            if (k == key)
+                return counterValues.get(i);
+            if (k == 0L)
+                return 0L;
+        }
+        return 0L;
+    }
+
+    /**
+     * Uninstall the callback and stop the drain thread after delivering all pending messages. The context must be current.
+     */
+    void free() {
+        glDebugMessageCallback(null, NULL);
+        glDisable(GL_DEBUG_OUTPUT);
+        // with asynchronous output, driver threads may still be inside the callback until all prior commands completed
+        glFinish();
+        dispose();
+    }
+
+    /**
+     * Release the callback and stop the drain thread after the context has been destroyed.
+     */
+    void dispose() {
+        if (stopped)
+            return;
+        stopped = true;
+        callback.free();
+        LockSupport.unpark(drainThread);
+    }
+
+}
@@ -0,0 +1,364 @@
+package org.lwjgl.opengl.swt;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces the frames of a {@link GLCanvas} to an arbitrary target frame rate, obtained via {@link GLCanvas#enableFramePacer(double)}.
+ * <p>
+ * The application calls {@link #waitForFrame()} right before rendering a frame. This blocks until the latest time at which the frame can
+ * still be rendered and swapped in time for its deadline, like a software version of {@link GLCanvas#delayBeforeSwapNV(float)}. The time
+ * needed to render a frame is estimated from the time between the return of {@link #waitForFrame()} and the following
+ * {@link GLCanvas#swapBuffers()}, plus a {@link #setSafetyMarginNanos(long) safety margin}. Waiting first parks the thread and spins only
+ * for the last fraction of a millisecond, where the spin time adapts to the measured oversleeping of the parked thread.
+ * <p>
+ * With a non-zero or unspecified {@link GLData#swapInterval}, the deadlines are vertical retraces. Their period and phase are predicted from the
+ * <code>GLX_OML_sync_control</code> sync values when available, and otherwise from the times at which the swaps return. The target frame
+ * rate is then rounded to a whole number of retraces per frame. Without vsync, the deadlines are spaced by exactly the target frame
+ * period.
+ * <p>
+ * The jitter of the achieved frame intervals and of the wake-ups is summarized over the last {@link #WINDOW} frames. All methods must be
+ * called from the thread of the canvas.
+ *
+ * @author Kai Burjack
+ */
+public class GLFramePacer {
+
+    /**
+     * The number of frames summarized by the jitter statistics.
+     */
+    public static final int WINDOW = 120;
+
+    private static final long MIN_SPIN_NANOS = 100000L;
+    private static final long MAX_SPIN_NANOS = 2000000L;
+
+    private final GLCanvas canvas;
+    private final boolean vsync;
+    private final long[] ustMscSbc = new long[3];
+    private long periodNanos;
+    private long safetyMarginNanos = 1000000L;
+
+    private long refreshNanos;
+    private long vblankNanos;
+    private long lastUst = -1L;
+    private long lastMsc;
+    private long lastSwapNanos;
+
+    private long deadlineNanos;
+    private long wakeNanos;
+    private long workNanos;
+    private long parkOvershootNanos;
+    private boolean waited;
+
+    private final long[] intervalNanos = new long[WINDOW];
+    private final long[] wakeErrorNanos = new long[WINDOW];
+    private int count;
+    private int index;
+    private long frames;
+    private long missedFrames;
+
+    GLFramePacer(GLCanvas canvas, double targetFps) {
+        this.canvas = canvas;
+        Integer swapInterval = canvas.requested.swapInterval;
+        // drivers synchronize to the vertical retrace by default
+        this.vsync = swapInterval == null || swapInterval.intValue() != 0;
+        setTargetFps(targetFps);
+    }
+
+    /**
+     * Set the target frame rate.
+     *
+     * @param targetFps
+     *            the number of frames per second
+     */
+    public void setTargetFps(double targetFps) {
+        if (!(targetFps > 0.0))
+            throw new IllegalArgumentException("Invalid target frame rate");
+        periodNanos = (long) (1E9 / targetFps);
+        deadlineNanos = 0L;
+    }
+
+    /**
+     * @return the target frame rate
+     */
+    public double getTargetFps() {
+        return 1E9 / periodNanos;
+    }
+
+    /**
+     * Set the time reserved in addition to the estimated render time of a frame, which covers the GPU finishing the frame and scheduling
+     * delays. The default is one millisecond.
+     *
+     * @param nanos
+     *            the safety margin in nanoseconds
+     */
+    public void setSafetyMarginNanos(long nanos) {
+        if (nanos < 0L)
+            throw new IllegalArgumentException("Invalid safety margin");
+        safetyMarginNanos = nanos;
+    }
+
+    /**
+     * @return the safety margin in nanoseconds
+     */
+    public long getSafetyMarginNanos() {
+        return safetyMarginNanos;
+    }
+
+    /**
+     * Block until the next frame should be rendered.
+     *
+     * @return the {@link System#nanoTime()} at which the frame is expected to be presented, for animating to that time
+     */
+    public long waitForFrame() {
+        long now = System.nanoTime();
+        long deadline = nextDeadline(now);
+        long wake = deadline - workNanos - safetyMarginNanos;
+        sleepUntil(wake);
+        wakeNanos = System.nanoTime();
+        recordWakeError(Math.max(0L, wakeNanos - wake));
+        deadlineNanos = deadline;
+        waited = true;
+        return deadline;
+    }
+
+    /**
+     * Block until the given time before the next predicted vertical retrace, or, without vsync, before the next frame deadline.
+     *
+     * @param nanos
+     *            the time before the retrace, in nanoseconds
+     * @return <code>true</code> if a retrace could be predicted and had to be waited for; <code>false</code> otherwise
+     */
+    public boolean delayBeforeSwap(long nanos) {
+        long now = System.nanoTime();
+        long target;
+        if (vsync) {
+            if (refreshNanos == 0L)
+                return false;
+            target = nextVblank(now + nanos) - nanos;
+        } else {
+            target = (deadlineNanos != 0L ? deadlineNanos : now) - nanos;
+        }
+        if (target <= now)
+            return false;
+        sleepUntil(target);
+        return true;
+    }
+
+    private long nextDeadline(long now) {
+        if (vsync && refreshNanos != 0L) {
+            long earliest = deadlineNanos != 0L ? deadlineNanos + effectivePeriodNanos() - refreshNanos / 2 : now;
+            // the frame cannot be presented before it has been rendered
+            return nextVblank(Math.max(earliest, now + workNanos + safetyMarginNanos));
+        }
+        long deadline = deadlineNanos + periodNanos;
+        if (deadlineNanos == 0L || deadline < now - periodNanos) {
+            // start over after the first frame or a long stall instead of rendering a burst of frames to catch up
+            deadline = now + workNanos + safetyMarginNanos;
+        }
+        return deadline;
+    }
+
+    /**
+     * The target frame period, rounded to a whole number of retraces once the refresh period is known with vsync.
+     */
+    private long effectivePeriodNanos() {
+        if (!vsync || refreshNanos == 0L)
+            return periodNanos;
+        return Math.max(1L, Math.round((double) periodNanos / refreshNanos)) * refreshNanos;
+    }
+
+    private long nextVblank(long time) {
+        long retraces = Math.floorDiv(time - vblankNanos + refreshNanos - 1, refreshNanos);
+        return vblankNanos + retraces * refreshNanos;
+    }
+
+    private void sleepUntil(long time) {
+        for (;;) {
+            long remaining = time - System.nanoTime();
+            if (remaining <= 0L)
+                return;
+            long spin = spinNanos();
+            if (remaining > spin) {
+                long park = remaining - spin;
+                long start = System.nanoTime();
+                LockSupport.parkNanos(park);
+                long overshoot = Math.max(0L, System.nanoTime() - start - park);
+                // a decaying maximum, so that single late wake-ups make spinning longer for a while
+                parkOvershootNanos = Math.max(overshoot, parkOvershootNanos - parkOvershootNanos / 32);
+            }
+        }
+    }
+
+    private long spinNanos() {
+        return Math.max(MIN_SPIN_NANOS, Math.min(MAX_SPIN_NANOS, 2L * parkOvershootNanos + MIN_SPIN_NANOS / 2));
+    }
+
+    void beforeSwap() {
+        if (!waited)
+            return;
+        waited = false;
+        long work = System.nanoTime() - wakeNanos;
+        workNanos = Math.max(work, workNanos - workNanos / 16);
+    }
+
+    void afterSwap() {
+        long now = System.nanoTime();
+        if (vsync)
+            predictVblank(now);
+        if (lastSwapNanos != 0L) {
+            intervalNanos[index] = now - lastSwapNanos;
+            index = (index + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+        }
+        if (deadlineNanos != 0L) {
+            long late = now - deadlineNanos;
+            if (late > (vsync && refreshNanos != 0L ? refreshNanos / 2 : safetyMarginNanos))
+                missedFrames++;
+        }
+        lastSwapNanos = now;
+        frames++;
+    }
+
+    private void predictVblank(long now) {
+        if (canvas.getSyncValues(ustMscSbc) && ustMscSbc[1] > lastMsc) {
+            long ust = ustMscSbc[0] * 1000L;
+            long msc = ustMscSbc[1];
+            if (lastUst >= 0L) {
+                long refresh = (ust - lastUst) / (msc - lastMsc);
+                refreshNanos = refreshNanos == 0L ? refresh : refreshNanos + (refresh - refreshNanos) / 8;
+            }
+            lastUst = ust;
+            lastMsc = msc;
+            // the UST is CLOCK_MONOTONIC like System.nanoTime() on Linux; fall back to the swap times otherwise
+            if (Math.abs(now - ust) < 1000000000L) {
+                vblankNanos = ust;
+                return;
+            }
+        }
+        if (lastSwapNanos == 0L)
+            return;
+        long interval = now - lastSwapNanos;
+        if (refreshNanos == 0L) {
+            refreshNanos = interval;
+            vblankNanos = now;
+            return;
+        }
+        long retraces = Math.round((double) interval / refreshNanos);
+        if (retraces >= 1L) {
+            long refresh = interval / retraces;
+            if (Math.abs(refresh - refreshNanos) < refreshNanos / 10)
+                refreshNanos += (refresh - refreshNanos) / 16;
+        }
+        // blocking swaps return shortly after the retrace, so pull the predicted phase towards the swap times
+        long predicted = nextVblank(now - refreshNanos / 2);
+        vblankNanos = predicted + (now - predicted) / 8;
+    }
+
+    private void recordWakeError(long nanos) {
+        wakeErrorNanos[index] = nanos;
+    }
+
+    /**
+     * @return the number of frames swapped
+     */
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * @return the number of frames that were presented after their deadline
+     */
+    public long getMissedFrames() {
+        return missedFrames;
+    }
+
+    /**
+     * @return the predicted period of the vertical retrace in nanoseconds, or 0 if unknown or without vsync
+     */
+    public long getRefreshPeriodNanos() {
+        return refreshNanos;
+    }
+
+    /**
+     * @return the predicted {@link System#nanoTime()} of the next vertical retrace, or 0 if unknown or without vsync
+     */
+    public long getNextVblankNanos() {
+        return refreshNanos == 0L ? 0L : nextVblank(System.nanoTime());
+    }
+
+    /**
+     * @return the currently estimated time to render a frame, in nanoseconds
+     */
+    public long getRenderTimeEstimateNanos() {
+        return workNanos;
+    }
+
+    /**
+     * @return the time at the end of a wait that is currently spent spinning instead of parking the thread, in nanoseconds
+     */
+    public long getSpinNanos() {
+        return spinNanos();
+    }
+
+    /**
+     * @return the average time between two swaps in nanoseconds
+     */
+    public long getAverageIntervalNanos() {
+        if (count == 0)
+            return 0L;
+        long sum = 0L;
+        for (int i = 0; i < count; i++)
+            sum += intervalNanos[i];
+        return sum / count;
+    }
+
+    /**
+     * @return the standard deviation of the time between two swaps in nanoseconds
+     */
+    public long getIntervalJitterNanos() {
+        if (count == 0)
+            return 0L;
+        double mean = getAverageIntervalNanos();
+        double sum = 0.0;
+        for (int i = 0; i < count; i++) {
+            double d = intervalNanos[i] - mean;
+            sum += d * d;
+        }
+        return (long) Math.sqrt(sum / count);
+    }
+
+    /**
+     * @return the largest deviation of the time between two swaps from the target frame period, in nanoseconds. With vsync the target
+     *         period is rounded to a whole number of retraces.
+     */
+    public long getMaxIntervalDeviationNanos() {
+        long period = effectivePeriodNanos();
+        long max = 0L;
+        for (int i = 0; i < count; i++)
+            max = Math.max(max, Math.abs(intervalNanos[i] - period));
+        return max;
+    }
+
+    /**
+     * @return the average time {@link #waitForFrame()} returned later than planned, in nanoseconds
+     */
+    public long getAverageWakeErrorNanos() {
+        if (count == 0)
+            return 0L;
+        long sum = 0L;
+        for (int i = 0; i < count; i++)
+            sum += wakeErrorNanos[i];
+        return sum / count;
+    }
+
+    /**
+     * @return the largest time {@link #waitForFrame()} returned later than planned, in nanoseconds
+     */
+    public long getMaxWakeErrorNanos() {
+        long max = 0L;
+        for (int i = 0; i < count; i++)
+            max = Math.max(max, wakeErrorNanos[i]);
+        return max;
+    }
+
+}
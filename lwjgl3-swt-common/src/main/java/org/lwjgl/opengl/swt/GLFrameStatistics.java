@@ -0,0 +1,277 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.ARBPipelineStatisticsQuery.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL33.*;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * Per-frame statistics of a {@link GLCanvas}, obtained via {@link GLCanvas#enableFrameStatistics()}.
+ * <p>
+ * A frame spans from one {@link GLCanvas#swapBuffers()} to the next. For each frame, the wall-clock frame time, the CPU time spent before
+ * the swap and the number of draw calls reported via {@link #countDraws(int)} are recorded. When
+ * <a href="https://www.khronos.org/registry/OpenGL/extensions/ARB/ARB_pipeline_statistics_query.txt">ARB_pipeline_statistics_query</a>
+ * is available, the number of submitted vertices and primitives and of fragment shader invocations is queried as well. Query results are
+ * read back {@link #LAG} frames later and only if they are available by then, so collecting them never stalls the pipeline.
+ * <p>
+ * All values are summarized over a rolling window of the last {@link #WINDOW} frames. All methods must be called from the thread of the
+ * canvas.
+ *
+ * @author Kai Burjack
+ */
+public class GLFrameStatistics {
+
+    /**
+     * The number of frames after which GPU query results are read back.
+     */
+    public static final int LAG = 3;
+
+    /**
+     * The number of frames summarized by the rolling averages and maxima.
+     */
+    public static final int WINDOW = 120;
+
+    private static final int[] TARGETS = { GL_VERTICES_SUBMITTED_ARB, GL_PRIMITIVES_SUBMITTED_ARB, GL_FRAGMENT_SHADER_INVOCATIONS_ARB };
+    private static final int VERTICES = 0, PRIMITIVES = 1, FRAGMENTS = 2;
+
+    private final boolean pipelineStatistics;
+    private final int[][] queries;
+    private final long[] slotDraws = new long[LAG + 1];
+    private int slot;
+    private long frame;
+
+    private long frameStart;
+    private long drawsThisFrame;
+    private boolean frameEnded;
+
+    private final long[] frameNanos = new long[WINDOW];
+    private final long[] cpuNanos = new long[WINDOW];
+    private int timeCount;
+    private int timeIndex;
+
+    private final long[][] counters = new long[4][WINDOW];
+    private int counterCount;
+    private int counterIndex;
+    private final long[] lastCounters = new long[4];
+
+    GLFrameStatistics() {
+        GLCapabilities caps = GL.getCapabilities();
+        pipelineStatistics = (caps.GL_ARB_pipeline_statistics_query || caps.OpenGL46) && caps.OpenGL33;
+        if (pipelineStatistics) {
+            queries = new int[LAG + 1][TARGETS.length];
+            for (int i = 0; i < queries.length; i++)
+                glGenQueries(queries[i]);
+        } else {
+            queries = null;
+        }
+        beginFrame(System.nanoTime());
+    }
+
+    private void beginFrame(long time) {
+        frameStart = time;
+        drawsThisFrame = 0L;
+        frameEnded = false;
+        if (pipelineStatistics) {
+            for (int i = 0; i < TARGETS.length; i++)
+                glBeginQuery(TARGETS[i], queries[slot][i]);
+        }
+    }
+
+    /**
+     * Must be called right before the buffers are swapped, with the context current. Calling it again without a swap in between, such as
+     * after a scheduled swap that turned out to be unsupported, has no effect.
+     */
+    void beforeSwap() {
+        if (frameEnded)
+            return;
+        frameEnded = true;
+        cpuNanos[timeIndex] = System.nanoTime() - frameStart;
+        if (pipelineStatistics) {
+            for (int i = 0; i < TARGETS.length; i++)
+                glEndQuery(TARGETS[i]);
+        }
+        slotDraws[slot] = drawsThisFrame;
+    }
+
+    /**
+     * Must be called right after the buffers have been swapped, with the context current.
+     */
+    void afterSwap() {
+        long time = System.nanoTime();
+        frameNanos[timeIndex] = time - frameStart;
+        timeIndex = (timeIndex + 1) % WINDOW;
+        timeCount = Math.min(timeCount + 1, WINDOW);
+        frame++;
+        slot = (int) (frame % (LAG + 1));
+        if (!pipelineStatistics) {
+            // draw calls are known immediately
+            record(slotDraws[(int) ((frame - 1) % (LAG + 1))], 0L, 0L, 0L);
+        } else if (frame > LAG) {
+            // the slot about to be reused holds the queries of the frame LAG frames ago
+            int[] q = queries[slot];
+            if (glGetQueryObjecti(q[TARGETS.length - 1], GL_QUERY_RESULT_AVAILABLE) == GL_TRUE) {
+                record(slotDraws[slot], glGetQueryObjectui64(q[VERTICES], GL_QUERY_RESULT),
+                        glGetQueryObjectui64(q[PRIMITIVES], GL_QUERY_RESULT), glGetQueryObjectui64(q[FRAGMENTS], GL_QUERY_RESULT));
+            }
+        }
+        beginFrame(time);
+    }
+
+    private void record(long draws, long vertices, long primitives, long fragments) {
+        lastCounters[0] = counters[0][counterIndex] = draws;
+        lastCounters[1] = counters[1][counterIndex] = vertices;
+        lastCounters[2] = counters[2][counterIndex] = primitives;
+        lastCounters[3] = counters[3][counterIndex] = fragments;
+        counterIndex = (counterIndex + 1) % WINDOW;
+        counterCount = Math.min(counterCount + 1, WINDOW);
+    }
+
+    /**
+     * Count draw calls issued in the current frame.
+     *
+     * @param draws
+     *            the number of draw calls
+     */
+    public void countDraws(int draws) {
+        drawsThisFrame += draws;
+    }
+
+    /**
+     * @return whether GPU pipeline statistics are collected in addition to frame times and draw calls
+     */
+    public boolean isPipelineStatisticsSupported() {
+        return pipelineStatistics;
+    }
+
+    /**
+     * @return the number of completed frames
+     */
+    public long getFrameCount() {
+        return frame;
+    }
+
+    /**
+     * @return the time between the last two swaps, in nanoseconds
+     */
+    public long getLastFrameTimeNanos() {
+        return timeCount == 0 ? 0L : frameNanos[(timeIndex + WINDOW - 1) % WINDOW];
+    }
+
+    /**
+     * @return the average time between swaps over the rolling window, in nanoseconds
+     */
+    public long getAverageFrameTimeNanos() {
+        return average(frameNanos, timeCount);
+    }
+
+    /**
+     * @return the maximum time between swaps over the rolling window, in nanoseconds
+     */
+    public long getMaxFrameTimeNanos() {
+        return max(frameNanos, timeCount);
+    }
+
+    /**
+     * @return the average time from the start of a frame until its swap over the rolling window, in nanoseconds
+     */
+    public long getAverageCpuTimeNanos() {
+        return average(cpuNanos, timeCount);
+    }
+
+    /**
+     * @return the draw calls of the most recent frame with available statistics
+     */
+    public long getLastDrawCalls() {
+        return lastCounters[0];
+    }
+
+    /**
+     * @return the average draw calls per frame over the rolling window
+     */
+    public long getAverageDrawCalls() {
+        return average(counters[0], counterCount);
+    }
+
+    /**
+     * @return the maximum draw calls per frame over the rolling window
+     */
+    public long getMaxDrawCalls() {
+        return max(counters[0], counterCount);
+    }
+
+    /**
+     * @return the submitted vertices of the most recent frame with available statistics
+     */
+    public long getLastVertices() {
+        return lastCounters[1];
+    }
+
+    /**
+     * @return the average submitted vertices per frame over the rolling window
+     */
+    public long getAverageVertices() {
+        return average(counters[1], counterCount);
+    }
+
+    /**
+     * @return the submitted primitives of the most recent frame with available statistics
+     */
+    public long getLastPrimitives() {
+        return lastCounters[2];
+    }
+
+    /**
+     * @return the average submitted primitives per frame over the rolling window
+     */
+    public long getAveragePrimitives() {
+        return average(counters[2], counterCount);
+    }
+
+    /**
+     * @return the fragment shader invocations of the most recent frame with available statistics
+     */
+    public long getLastFragmentInvocations() {
+        return lastCounters[3];
+    }
+
+    /**
+     * @return the average fragment shader invocations per frame over the rolling window
+     */
+    public long getAverageFragmentInvocations() {
+        return average(counters[3], counterCount);
+    }
+
+    private static long average(long[] values, int count) {
+        if (count == 0)
+            return 0L;
+        long sum = 0L;
+        for (int i = 0; i < count; i++)
+            sum += values[i];
+        return sum / count;
+    }
+
+    private static long max(long[] values, int count) {
+        long max = 0L;
+        for (int i = 0; i < count; i++)
+            max = Math.max(max, values[i]);
+        return max;
+    }
+
+    /**
+     * End all active queries and delete them. The context must be current.
+     */
+    void free() {
+        if (pipelineStatistics) {
+            // the queries are only active between a swap and the next beforeSwap()
+            if (!frameEnded) {
+                for (int i = 0; i < TARGETS.length; i++)
+                    glEndQuery(TARGETS[i]);
+            }
+            for (int i = 0; i < queries.length; i++)
+                glDeleteQueries(queries[i]);
+        }
+    }
+
+}
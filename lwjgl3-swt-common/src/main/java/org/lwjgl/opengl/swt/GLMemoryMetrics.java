@@ -0,0 +1,177 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.ATIMeminfo.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.NVXGPUMemoryInfo.*;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * Video memory metrics of the context of a {@link GLCanvas}, obtained via {@link GLCanvas#enableMemoryMetrics(long, Listener)}.
+ * <p>
+ * The metrics are sampled from whichever of the following is available, in this order:
+ * <ul>
+ * <li><a href="https://www.khronos.org/registry/OpenGL/extensions/NVX/NVX_gpu_memory_info.txt">GL_NVX_gpu_memory_info</a>: total,
+ * available and evicted memory as well as the eviction count</li>
+ * <li><a href="https://www.khronos.org/registry/OpenGL/extensions/ATI/ATI_meminfo.txt">GL_ATI_meminfo</a>: available texture memory,
+ * with the total taken from <code>GLX_MESA_query_renderer</code> if present</li>
+ * <li><a href="https://www.khronos.org/registry/OpenGL/extensions/MESA/GLX_MESA_query_renderer.txt">GLX_MESA_query_renderer</a>: total
+ * memory only</li>
+ * </ul>
+ * These are plain state queries which do not synchronize with the GPU. Samples are taken in {@link GLCanvas#swapBuffers()} once the
+ * configured interval has elapsed. Values which the source cannot provide are reported as <code>-1</code>.
+ *
+ * @author Kai Burjack
+ */
+public class GLMemoryMetrics {
+
+    /**
+     * Notified on the thread of the canvas after each sample.
+     */
+    public interface Listener {
+        /**
+         * Invoked after the metrics have been sampled.
+         *
+         * @param metrics
+         *            the {@link GLMemoryMetrics}
+         */
+        void sampled(GLMemoryMetrics metrics);
+    }
+
+    /**
+     * The source of the metrics.
+     */
+    public enum Source {
+        /** GL_NVX_gpu_memory_info */
+        NVX_GPU_MEMORY_INFO,
+        /** GL_ATI_meminfo */
+        ATI_MEMINFO,
+        /** GLX_MESA_query_renderer */
+        MESA_QUERY_RENDERER,
+        /** No source is available */
+        NONE
+    }
+
+    private final GLCanvas canvas;
+    private final Source source;
+    private final long intervalNanos;
+    private final Listener listener;
+    private final int[] value = new int[1];
+    private final int[] meminfo = new int[4];
+    private long lastSample;
+
+    private long totalKiB = -1L;
+    private long availableKiB = -1L;
+    private long evictedKiB = -1L;
+    private long evictionCount = -1L;
+    private long minAvailableKiB = -1L;
+    private long samples;
+
+    GLMemoryMetrics(GLCanvas canvas, long intervalMillis, Listener listener) {
+        this.canvas = canvas;
+        this.intervalNanos = intervalMillis * 1000000L;
+        this.listener = listener;
+        GLCapabilities caps = GL.getCapabilities();
+        if (caps.GL_NVX_gpu_memory_info)
+            source = Source.NVX_GPU_MEMORY_INFO;
+        else if (caps.GL_ATI_meminfo)
+            source = Source.ATI_MEMINFO;
+        else if (GLCanvas.platformCanvas.queryRendererInteger(canvas, PlatformGLCanvas.GLX_RENDERER_VIDEO_MEMORY_MESA, value))
+            source = Source.MESA_QUERY_RENDERER;
+        else
+            source = Source.NONE;
+        sample();
+    }
+
+    /**
+     * Must be called right after the buffers have been swapped, with the context current.
+     */
+    void afterSwap() {
+        if (System.nanoTime() - lastSample >= intervalNanos)
+            sample();
+    }
+
+    /**
+     * Sample the metrics now. The context of the canvas must be current.
+     */
+    public void sample() {
+        lastSample = System.nanoTime();
+        switch (source) {
+        case NVX_GPU_MEMORY_INFO:
+            totalKiB = glGetInteger(GL_GPU_MEMORY_INFO_DEDICATED_VIDMEM_NVX);
+            availableKiB = glGetInteger(GL_GPU_MEMORY_INFO_CURRENT_AVAILABLE_VIDMEM_NVX);
+            evictedKiB = glGetInteger(GL_GPU_MEMORY_INFO_EVICTED_MEMORY_NVX);
+            evictionCount = glGetInteger(GL_GPU_MEMORY_INFO_EVICTION_COUNT_NVX);
+            break;
+        case ATI_MEMINFO:
+            // the first of the four values is the total free memory in the texture pool
+            glGetIntegerv(GL_TEXTURE_FREE_MEMORY_ATI, meminfo);
+            availableKiB = meminfo[0];
+            if (totalKiB == -1L && GLCanvas.platformCanvas.queryRendererInteger(canvas, PlatformGLCanvas.GLX_RENDERER_VIDEO_MEMORY_MESA, value))
+                totalKiB = value[0] * 1024L;
+            break;
+        case MESA_QUERY_RENDERER:
+            if (GLCanvas.platformCanvas.queryRendererInteger(canvas, PlatformGLCanvas.GLX_RENDERER_VIDEO_MEMORY_MESA, value))
+                totalKiB = value[0] * 1024L;
+            break;
+        default:
+            break;
+        }
+        if (availableKiB != -1L)
+            minAvailableKiB = minAvailableKiB == -1L ? availableKiB : Math.min(minAvailableKiB, availableKiB);
+        samples++;
+        if (listener != null)
+            listener.sampled(this);
+    }
+
+    /**
+     * @return the source of the metrics
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * @return the total dedicated video memory in KiB, or <code>-1</code> if unknown
+     */
+    public long getTotalKiB() {
+        return totalKiB;
+    }
+
+    /**
+     * @return the currently available video memory in KiB, or <code>-1</code> if unknown
+     */
+    public long getAvailableKiB() {
+        return availableKiB;
+    }
+
+    /**
+     * @return the lowest available video memory seen by any sample in KiB, or <code>-1</code> if unknown
+     */
+    public long getMinAvailableKiB() {
+        return minAvailableKiB;
+    }
+
+    /**
+     * @return the total size of memory evicted from video memory in KiB, or <code>-1</code> if unknown
+     */
+    public long getEvictedKiB() {
+        return evictedKiB;
+    }
+
+    /**
+     * @return the number of evictions, or <code>-1</code> if unknown
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of samples taken
+     */
+    public long getSampleCount() {
+        return samples;
+    }
+
+}
@@ -0,0 +1,240 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.GL11.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.internal.DPIUtil;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Event;
+
+/**
+ * A {@link GLCanvas} hosting many logical {@link GLView views} with a single context, drawable and swap.
+ * <p>
+ * Each view is rendered with its viewport and scissor rectangle set to its bounds, scaled to pixels on HiDPI displays. {@link GLView#redraw() Redraw requests} are coalesced
+ * into one frame rendered from {@link org.eclipse.swt.widgets.Display#asyncExec(Runnable)}. When the back buffer still holds the previous
+ * frame (a {@link #getBufferAge() buffer age} of 1), only the views requesting a redraw are rendered and presented via
+ * {@link #swapBuffers(Rectangle...)}; otherwise all views are rendered.
+ * <p>
+ * Mouse events on the canvas are routed to the view under the pointer, with coordinates relative to that view. While a button is pressed,
+ * all mouse events go to the view that received the <code>SWT.MouseDown</code>. <code>SWT.MouseEnter</code> and <code>SWT.MouseExit</code>
+ * are synthesized when the pointer moves between views.
+ * <p>
+ * The views may be laid out via {@link GLView#setPlaceholder(Control) placeholder controls}, usually invisible children of this canvas
+ * positioned by its layout.
+ *
+ * @author Kai Burjack
+ */
+public class GLMultiViewCanvas extends GLCanvas {
+    private final List<GLView> views = new ArrayList<GLView>();
+    private GLView captured;
+    private GLView hovered;
+    private boolean frameScheduled;
+    private final float[] clearColor = { 0.0f, 0.0f, 0.0f, 1.0f };
+
+    /**
+     * Create a GLMultiViewCanvas widget using the attributes described in the GLData object provided.
+     *
+     * @param parent a composite widget
+     * @param style the bitwise OR'ing of widget styles
+     * @param data the requested attributes of the GLCanvas
+     * @see GLCanvas#GLCanvas(Composite, int, GLData)
+     */
+    public GLMultiViewCanvas(Composite parent, int style, GLData data) {
+        super(parent, style, data);
+        addListener(SWT.Resize, event -> layoutViews());
+        addListener(SWT.Paint, event -> redrawAll());
+        int[] mouseEvents = { SWT.MouseDown, SWT.MouseUp, SWT.MouseMove, SWT.MouseDoubleClick, SWT.MouseWheel, SWT.MouseExit };
+        for (int type : mouseEvents)
+            addListener(type, this::route);
+    }
+
+    /**
+     * Create a new view rendered by the given renderer.
+     *
+     * @param renderer
+     *            the {@link GLView.Renderer}
+     * @return the new {@link GLView}
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLView createView(GLView.Renderer renderer) {
+        checkWidget();
+        if (renderer == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        GLView view = new GLView(this, renderer);
+        views.add(view);
+        redrawAll();
+        return view;
+    }
+
+    /**
+     * Returns the views of this canvas.
+     *
+     * @return the views, in rendering order
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public GLView[] getViews() {
+        checkWidget();
+        return views.toArray(new GLView[views.size()]);
+    }
+
+    /**
+     * Sets the color used to clear the area not covered by any view.
+     *
+     * @param red the red component
+     * @param green the green component
+     * @param blue the blue component
+     * @param alpha the alpha component
+     * @exception SWTException <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     */
+    public void setClearColor(float red, float green, float blue, float alpha) {
+        checkWidget();
+        clearColor[0] = red;
+        clearColor[1] = green;
+        clearColor[2] = blue;
+        clearColor[3] = alpha;
+        redrawAll();
+    }
+
+    void removeView(GLView view) {
+        views.remove(view);
+        if (captured == view)
+            captured = null;
+        if (hovered == view)
+            hovered = null;
+        if (!isDisposed())
+            redrawAll();
+    }
+
+    void layoutViews() {
+        for (GLView view : views) {
+            Control placeholder = view.placeholder;
+            if (placeholder == null || placeholder.isDisposed())
+                continue;
+            Rectangle bounds = placeholder.getBounds();
+            if (placeholder.getParent() != this)
+                bounds = getDisplay().map(placeholder.getParent(), this, bounds);
+            view.bounds.x = bounds.x;
+            view.bounds.y = bounds.y;
+            view.bounds.width = bounds.width;
+            view.bounds.height = bounds.height;
+        }
+        redrawAll();
+    }
+
+    void redrawAll() {
+        for (GLView view : views)
+            view.dirty = true;
+        scheduleFrame();
+    }
+
+    void scheduleFrame() {
+        if (frameScheduled || isDisposed())
+            return;
+        frameScheduled = true;
+        getDisplay().asyncExec(this::renderFrame);
+    }
+
+    private void renderFrame() {
+        frameScheduled = false;
+        if (isDisposed())
+            return;
+        setCurrent();
+        Rectangle clientArea = DPIUtil.autoScaleUp(getClientArea());
+        boolean partial = getBufferAge() == 1;
+        List<Rectangle> damage = new ArrayList<Rectangle>();
+        if (!partial) {
+            glDisable(GL_SCISSOR_TEST);
+            glClearColor(clearColor[0], clearColor[1], clearColor[2], clearColor[3]);
+            glClear(GL_COLOR_BUFFER_BIT);
+        }
+        glEnable(GL_SCISSOR_TEST);
+        for (GLView view : views.toArray(new GLView[views.size()])) {
+            if (partial && !view.dirty)
+                continue;
+            view.dirty = false;
+            Rectangle b = view.bounds;
+            if (b.width <= 0 || b.height <= 0)
+                continue;
+            Rectangle p = DPIUtil.autoScaleUp(b);
+            int y = clientArea.height - p.y - p.height;
+            glViewport(p.x, y, p.width, p.height);
+            glScissor(p.x, y, p.width, p.height);
+            view.renderer.render(view, p.width, p.height);
+            damage.add(new Rectangle(b.x, b.y, b.width, b.height));
+        }
+        glDisable(GL_SCISSOR_TEST);
+        glViewport(0, 0, clientArea.width, clientArea.height);
+        if (!partial)
+            swapBuffers();
+        else if (!damage.isEmpty())
+            swapBuffers(damage.toArray(new Rectangle[damage.size()]));
+    }
+
+    private GLView viewAt(int x, int y) {
+        // the last view is rendered on top
+        for (int i = views.size() - 1; i >= 0; i--) {
+            GLView view = views.get(i);
+            if (view.bounds.contains(x, y))
+                return view;
+        }
+        return null;
+    }
+
+    private void route(Event event) {
+        if (event.type == SWT.MouseExit) {
+            setHovered(null, event);
+            return;
+        }
+        GLView target = captured != null ? captured : viewAt(event.x, event.y);
+        if (event.type == SWT.MouseMove && captured == null)
+            setHovered(target, event);
+        if (event.type == SWT.MouseDown)
+            captured = target;
+        else if (event.type == SWT.MouseUp)
+            captured = null;
+        if (target != null)
+            forward(target, event, event.type);
+    }
+
+    private void setHovered(GLView view, Event event) {
+        if (view == hovered)
+            return;
+        if (hovered != null)
+            forward(hovered, event, SWT.MouseExit);
+        hovered = view;
+        if (view != null)
+            forward(view, event, SWT.MouseEnter);
+    }
+
+    private void forward(GLView view, Event event, int type) {
+        Event e = new Event();
+        e.type = type;
+        e.widget = this;
+        e.display = event.display;
+        e.time = event.time;
+        e.x = event.x - view.bounds.x;
+        e.y = event.y - view.bounds.y;
+        e.button = event.button;
+        e.count = event.count;
+        e.stateMask = event.stateMask;
+        e.detail = event.detail;
+        e.data = view;
+        view.notifyListeners(e);
+    }
+
+}
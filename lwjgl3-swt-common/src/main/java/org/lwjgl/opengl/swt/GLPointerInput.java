@@ -0,0 +1,192 @@
+package org.lwjgl.opengl.swt;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+
+/**
+ * Buffers every pointer event of a {@link GLCanvas} together with its window system timestamp, obtained via
+ * {@link GLCanvas#enablePointerInput(int)}.
+ * <p>
+ * On Linux the canvas' GL window normally requests only motion hints, so intermediate motion events are dropped. In high-rate mode every
+ * motion event is delivered and GDK's motion event compression is disabled. Events are stored in a preallocated ring buffer and the
+ * renderer consumes all events received since the last frame via {@link #drain(Sink)}. If the buffer is full, further events are dropped
+ * and {@link #getOverflowCount() counted}.
+ * <p>
+ * All methods must be called from the thread of the canvas.
+ *
+ * @author Kai Burjack
+ */
+public class GLPointerInput {
+
+    /**
+     * Consumes buffered pointer events.
+     */
+    public interface Sink {
+        /**
+         * Invoked for each buffered event, in the order received.
+         *
+         * @param type
+         *            one of <code>SWT.MouseMove</code>, <code>SWT.MouseDown</code> or <code>SWT.MouseUp</code>
+         * @param x
+         *            the x coordinate in widget coordinates
+         * @param y
+         *            the y coordinate in widget coordinates
+         * @param button
+         *            the button for <code>SWT.MouseDown</code> and <code>SWT.MouseUp</code>, 0 otherwise
+         * @param stateMask
+         *            the state of the keyboard modifier keys and mouse buttons
+         * @param time
+         *            the window system timestamp of the event in milliseconds
+         */
+        void event(int type, int x, int y, int button, int stateMask, long time);
+    }
+
+    private static final long RATE_INTERVAL_NANOS = 1000000000L;
+
+    private final GLCanvas canvas;
+    private final Listener listener = this::handleEvent;
+    private final int capacity;
+    private final int[] types;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] buttons;
+    private final int[] stateMasks;
+    private final long[] times;
+    private final long[] receivedNanos;
+    private int head;
+    private int count;
+    private long overflowCount;
+
+    private long rateStart = System.nanoTime();
+    private int rateEvents;
+    private float eventRate;
+
+    private long lastLatencyNanos;
+    private long maxLatencyNanos;
+    private long totalLatencyNanos;
+    private long drainedEvents;
+
+    GLPointerInput(GLCanvas canvas, int capacity) {
+        this.canvas = canvas;
+        this.capacity = capacity;
+        this.types = new int[capacity];
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.buttons = new int[capacity];
+        this.stateMasks = new int[capacity];
+        this.times = new long[capacity];
+        this.receivedNanos = new long[capacity];
+        canvas.addListener(SWT.MouseMove, listener);
+        canvas.addListener(SWT.MouseDown, listener);
+        canvas.addListener(SWT.MouseUp, listener);
+    }
+
+    private void handleEvent(Event event) {
+        long now = System.nanoTime();
+        rateEvents++;
+        if (now - rateStart >= RATE_INTERVAL_NANOS) {
+            eventRate = rateEvents * 1E9f / (now - rateStart);
+            rateStart = now;
+            rateEvents = 0;
+        }
+        if (count == capacity) {
+            overflowCount++;
+            return;
+        }
+        int i = (head + count) % capacity;
+        types[i] = event.type;
+        xs[i] = event.x;
+        ys[i] = event.y;
+        buttons[i] = event.button;
+        stateMasks[i] = event.stateMask;
+        times[i] = event.time & 0xFFFFFFFFL;
+        receivedNanos[i] = now;
+        count++;
+    }
+
+    /**
+     * Hand all events buffered since the last call to the given sink and remove them from the buffer.
+     * <p>
+     * This is meant to be called once per frame, and the time from receiving each event until it is drained is recorded as its
+     * event-to-frame latency.
+     *
+     * @param sink
+     *            the {@link Sink}
+     * @return the number of drained events
+     */
+    public int drain(Sink sink) {
+        long now = System.nanoTime();
+        int n = count;
+        long maxLatency = 0L;
+        for (int k = 0; k < n; k++) {
+            int i = (head + k) % capacity;
+            long latency = now - receivedNanos[i];
+            maxLatency = Math.max(maxLatency, latency);
+            totalLatencyNanos += latency;
+            sink.event(types[i], xs[i], ys[i], buttons[i], stateMasks[i], times[i]);
+        }
+        head = (head + n) % capacity;
+        count -= n;
+        drainedEvents += n;
+        if (n > 0) {
+            lastLatencyNanos = maxLatency;
+            maxLatencyNanos = Math.max(maxLatencyNanos, maxLatency);
+        }
+        return n;
+    }
+
+    /**
+     * @return the number of events waiting to be drained
+     */
+    public int getPendingCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of events dropped because the buffer was full
+     */
+    public long getOverflowCount() {
+        return overflowCount;
+    }
+
+    /**
+     * @return the number of received events per second, measured over the last full second
+     */
+    public float getEventRate() {
+        return eventRate;
+    }
+
+    /**
+     * @return the largest event-to-frame latency of the last {@link #drain(Sink)} that drained any events, in nanoseconds
+     */
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    /**
+     * @return the largest event-to-frame latency so far, in nanoseconds
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    /**
+     * @return the average event-to-frame latency of all drained events, in nanoseconds
+     */
+    public long getAverageLatencyNanos() {
+        return drainedEvents == 0L ? 0L : totalLatencyNanos / drainedEvents;
+    }
+
+    /**
+     * Stop buffering events.
+     */
+    void dispose() {
+        if (canvas.isDisposed())
+            return;
+        canvas.removeListener(SWT.MouseMove, listener);
+        canvas.removeListener(SWT.MouseDown, listener);
+        canvas.removeListener(SWT.MouseUp, listener);
+    }
+
+}
@@ -0,0 +1,367 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.ARBGetProgramBinary.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.system.MemoryStack.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryStack;
+
+/**
+ * Persistent cache of linked GL program binaries, as described by
+ * <a href="https://www.khronos.org/registry/OpenGL/extensions/ARB/ARB_get_program_binary.txt">ARB_get_program_binary</a>.
+ * <p>
+ * One cache exists per cache file, obtained via {@link #get(GLCanvas, File)}. Entries are keyed by a hash of the program's shader sources
+ * and stored in a memory-mapped file named after a hash of <code>GL_VENDOR</code> and <code>GL_RENDERER</code>, so that canvases on
+ * different GPUs use separate files. The file records the <code>GL_VERSION</code> it was written with and is reset when the driver
+ * changes. Binaries rejected by the driver are removed from the file, and their space is reclaimed the next time the file is opened.
+ * <p>
+ * The file may be used by several processes at once: opening, lookups and appends are guarded by a {@link FileChannel#lock() file
+ * lock}.
+ * <p>
+ * Typical usage, with the context of the canvas being current:
+ *
+ * <pre>
+ * if (!cache.load(program, vsSource, fsSource)) {
+ *     long time = System.nanoTime();
+ *     // compile, attach and link shaders as usual
+ *     cache.store(program, System.nanoTime() - time, vsSource, fsSource);
+ * }
+ * </pre>
+ *
+ * @author Kai Burjack
+ */
+public class GLProgramBinaryCache {
+    private static final int MAGIC = 0x4C504243; // "LPBC"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+    private static final int ENTRY_HEADER_SIZE = 8 + 4 + 4 + 8;
+    private static final int INITIAL_SIZE = 1 << 20;
+    private static final long REMOVED = 0L;
+
+    private static final Map<String, GLProgramBinaryCache> caches = new HashMap<String, GLProgramBinaryCache>();
+
+    private final String path;
+    private final Set<GLCanvas> users = new HashSet<GLCanvas>();
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer mapped;
+    private final Map<Long, Integer> offsets = new HashMap<Long, Integer>();
+    private int generation;
+    private int scanned = HEADER_SIZE;
+
+    private long hits;
+    private long misses;
+    private long timeSavedNanos;
+
+    private GLProgramBinaryCache(String path, long driver) throws IOException {
+        this.path = path;
+        this.file = new RandomAccessFile(path, "rw");
+        this.channel = file.getChannel();
+        try (FileLock lock = channel.lock()) {
+            boolean empty = channel.size() < HEADER_SIZE;
+            map(Math.max(INITIAL_SIZE, channel.size()));
+            if (empty || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                // New file or unknown format
+                mapped.putInt(0, MAGIC);
+                mapped.putInt(4, VERSION);
+                mapped.putLong(8, driver);
+                mapped.putInt(16, HEADER_SIZE);
+                mapped.putInt(20, 0);
+            } else if (mapped.getLong(8) != driver) {
+                // The driver was updated: reuse the file, but invalidate all entries
+                mapped.putLong(8, driver);
+                mapped.putInt(16, HEADER_SIZE);
+                mapped.putInt(20, mapped.getInt(20) + 1);
+            }
+            compact();
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private void map(long size) throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+    }
+
+    /**
+     * Move all live entries over the space of removed ones. Other processes notice the changed generation and rescan the file.
+     */
+    private void compact() {
+        int end = mapped.getInt(16);
+        int pos = HEADER_SIZE, live = HEADER_SIZE;
+        while (pos + ENTRY_HEADER_SIZE <= end) {
+            int size = ENTRY_HEADER_SIZE + mapped.getInt(pos + 12);
+            if (mapped.getLong(pos) != REMOVED) {
+                if (live != pos) {
+                    byte[] entry = new byte[size];
+                    ByteBuffer src = mapped.duplicate();
+                    src.position(pos);
+                    src.get(entry);
+                    ByteBuffer dst = mapped.duplicate();
+                    dst.position(live);
+                    dst.put(entry);
+                }
+                live += size;
+            }
+            pos += size;
+        }
+        if (live != end) {
+            mapped.putInt(16, live);
+            mapped.putInt(20, mapped.getInt(20) + 1);
+        }
+        scan();
+    }
+
+    /**
+     * Bring {@link #offsets} up to date with entries appended or moved by other processes. The file lock must be held.
+     */
+    private void scan() {
+        if (channel.size() > mapped.capacity()) {
+            try {
+                map(channel.size());
+            } catch (IOException e) {
+                throw new SWTException(SWT.ERROR_IO, e.getMessage());
+            }
+        }
+        if (mapped.getInt(20) != generation) {
+            generation = mapped.getInt(20);
+            offsets.clear();
+            scanned = HEADER_SIZE;
+        }
+        int end = mapped.getInt(16);
+        int pos = scanned;
+        while (pos + ENTRY_HEADER_SIZE <= end) {
+            long key = mapped.getLong(pos);
+            if (key != REMOVED)
+                offsets.put(key, pos);
+            pos += ENTRY_HEADER_SIZE + mapped.getInt(pos + 12);
+        }
+        scanned = pos;
+    }
+
+    private FileLock lock() {
+        try {
+            return channel.lock();
+        } catch (IOException e) {
+            throw new SWTException(SWT.ERROR_IO, e.getMessage());
+        }
+    }
+
+    /**
+     * Return the cache for the GPU of the given canvas, opening it if necessary. The context of the canvas must be current.
+     * <p>
+     * The cache is closed automatically once all canvases that requested it have been disposed.
+     *
+     * @param canvas
+     *            the {@link GLCanvas}
+     * @param directory
+     *            the directory holding the cache file
+     * @return the {@link GLProgramBinaryCache}
+     * @throws UnsupportedOperationException
+     *             if program binaries are not supported by the context
+     */
+    public static GLProgramBinaryCache get(GLCanvas canvas, File directory) {
+        if (canvas == null || directory == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        canvas.awaitContext();
+        GLCapabilities caps = GL.getCapabilities();
+        if (!caps.GL_ARB_get_program_binary && !caps.OpenGL41) {
+            throw new UnsupportedOperationException("GL_ARB_get_program_binary is unavailable");
+        }
+        if (glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS) == 0) {
+            throw new UnsupportedOperationException("The context supports no program binary formats");
+        }
+        long device = hash(glGetString(GL_VENDOR), glGetString(GL_RENDERER));
+        long driver = hash(glGetString(GL_VENDOR), glGetString(GL_RENDERER), glGetString(GL_VERSION));
+        synchronized (caches) {
+            String path;
+            GLProgramBinaryCache cache;
+            try {
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Could not create cache directory: " + directory);
+                }
+                path = new File(directory, "programs-" + Long.toHexString(device) + ".bin").getCanonicalPath();
+                cache = caches.get(path);
+                if (cache == null) {
+                    cache = new GLProgramBinaryCache(path, driver);
+                    caches.put(path, cache);
+                }
+            } catch (IOException e) {
+                throw new SWTException(SWT.ERROR_IO, e.getMessage());
+            }
+            if (cache.users.add(canvas)) {
+                final GLProgramBinaryCache c = cache;
+                canvas.addListener(SWT.Dispose, event -> c.release(canvas));
+            }
+            return cache;
+        }
+    }
+
+    private void release(GLCanvas canvas) {
+        synchronized (caches) {
+            users.remove(canvas);
+            if (users.isEmpty()) {
+                caches.remove(path);
+                close();
+            }
+        }
+    }
+
+    private static long hash(CharSequence... parts) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        for (CharSequence part : parts) {
+            md.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+        long hash = ByteBuffer.wrap(md.digest()).getLong();
+        return hash != REMOVED ? hash : 1L;
+    }
+
+    /**
+     * Try to initialize the given program from a cached binary of the given sources.
+     *
+     * @param program
+     *            the program object
+     * @param sources
+     *            the sources of all shaders of the program, in a stable order
+     * @return <code>true</code> if the program was successfully linked from a cached binary; <code>false</code> if it must be compiled
+     *         and linked from source and then {@link #store(int, long, CharSequence...) stored}
+     */
+    public synchronized boolean load(int program, CharSequence... sources) {
+        long key = hash(sources);
+        try (FileLock lock = lock()) {
+            scan();
+            Integer offset = offsets.get(key);
+            if (offset == null || mapped.getLong(offset.intValue()) != key) {
+                // Unknown, or removed by another process
+                offsets.remove(key);
+                misses++;
+                return false;
+            }
+            long time = System.nanoTime();
+            int pos = offset.intValue();
+            int format = mapped.getInt(pos + 8);
+            int length = mapped.getInt(pos + 12);
+            long compileNanos = mapped.getLong(pos + 16);
+            ByteBuffer binary = mapped.duplicate();
+            binary.position(pos + ENTRY_HEADER_SIZE).limit(pos + ENTRY_HEADER_SIZE + length);
+            glProgramBinary(program, format, binary.slice());
+            if (glGetProgrami(program, GL_LINK_STATUS) != GL_TRUE) {
+                // The driver rejected the binary, e.g. after an update with identical version string
+                offsets.remove(key);
+                mapped.putLong(pos, REMOVED);
+                misses++;
+                return false;
+            }
+            hits++;
+            timeSavedNanos += Math.max(0L, compileNanos - (System.nanoTime() - time));
+            return true;
+        } catch (IOException e) {
+            throw new SWTException(SWT.ERROR_IO, e.getMessage());
+        }
+    }
+
+    /**
+     * Store the binary of the given successfully linked program.
+     * <p>
+     * For best results, <code>GL_PROGRAM_BINARY_RETRIEVABLE_HINT</code> should be set on the program before linking.
+     *
+     * @param program
+     *            the linked program object
+     * @param compileNanos
+     *            the time it took to compile and link the program, used to compute {@link #getTimeSavedNanos()}
+     * @param sources
+     *            the sources of all shaders of the program, in the same order as given to {@link #load(int, CharSequence...)}
+     */
+    public synchronized void store(int program, long compileNanos, CharSequence... sources) {
+        int length = glGetProgrami(program, GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0)
+            return;
+        long key = hash(sources);
+        try (FileLock lock = lock(); MemoryStack stack = stackPush()) {
+            scan();
+            if (offsets.containsKey(key))
+                return; // stored by another process in the meantime
+            int pos = mapped.getInt(16);
+            int end = pos + ENTRY_HEADER_SIZE + length;
+            if (end > mapped.capacity()) {
+                map(Math.max(end, 2L * mapped.capacity()));
+            }
+            IntBuffer pLength = stack.mallocInt(1);
+            IntBuffer pFormat = stack.mallocInt(1);
+            ByteBuffer binary = mapped.duplicate();
+            binary.position(pos + ENTRY_HEADER_SIZE).limit(end);
+            glGetProgramBinary(program, pLength, pFormat, binary.slice());
+            mapped.putLong(pos, key);
+            mapped.putInt(pos + 8, pFormat.get(0));
+            mapped.putInt(pos + 12, pLength.get(0));
+            mapped.putLong(pos + 16, compileNanos);
+            mapped.putInt(16, pos + ENTRY_HEADER_SIZE + pLength.get(0));
+            offsets.put(key, pos);
+            scanned = pos + ENTRY_HEADER_SIZE + pLength.get(0);
+        } catch (IOException e) {
+            throw new SWTException(SWT.ERROR_IO, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of successful {@link #load(int, CharSequence...)} calls
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of {@link #load(int, CharSequence...)} calls that found no usable binary
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the accumulated compile and link time saved by cache hits, in nanoseconds
+     */
+    public synchronized long getTimeSavedNanos() {
+        return timeSavedNanos;
+    }
+
+    private synchronized void close() {
+        try {
+            mapped.force();
+            channel.close();
+            file.close();
+        } catch (IOException e) {
+            // ignore, the cache is best-effort
+        }
+        mapped = null;
+        offsets.clear();
+    }
+
+}
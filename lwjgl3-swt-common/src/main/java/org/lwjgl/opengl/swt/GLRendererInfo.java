@@ -0,0 +1,211 @@
+package org.lwjgl.opengl.swt;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.NVXGPUMemoryInfo;
+import org.lwjgl.system.FunctionProvider;
+import org.lwjgl.system.JNI;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Identification of the renderer of a {@link GLCanvas}' context, together with a coarse {@link Tier quality tier}.
+ * <p>
+ * It is gathered while creating the canvas when {@link GLData#probeRenderer} is requested, and is available via
+ * {@link GLData#renderer} of {@link GLCanvas#getGLData()}. Applications can use it to choose multisampling, resolution scale and effects
+ * before rendering the first frame.
+ *
+ * @author Kai Burjack
+ */
+public class GLRendererInfo {
+
+    /**
+     * Coarse classification of the renderer's performance.
+     */
+    public static enum Tier {
+        /**
+         * Software rasterizers and unaccelerated or virtual machine renderers.
+         */
+        LOW,
+        /**
+         * Integrated GPUs and GPUs with little video memory.
+         */
+        MEDIUM,
+        /**
+         * Discrete GPUs with plenty of video memory.
+         */
+        HIGH;
+    }
+
+    private static final int VENDOR_NVIDIA = 0x10DE;
+    private static final int VENDOR_AMD = 0x1002;
+    private static final int VENDOR_INTEL = 0x8086;
+
+    private static final String[] SOFTWARE_RENDERERS = { "llvmpipe", "softpipe", "swrast", "software rasterizer", "gdi generic",
+            "microsoft basic render", "svga3d", "virgl" };
+
+    /**
+     * The value of <code>GL_VENDOR</code>.
+     */
+    public String vendor;
+    /**
+     * The value of <code>GL_RENDERER</code>.
+     */
+    public String renderer;
+    /**
+     * The value of <code>GL_VERSION</code>.
+     */
+    public String version;
+    /**
+     * Whether the renderer is hardware accelerated, or <code>null</code> if unknown.
+     */
+    public Boolean accelerated;
+    /**
+     * The dedicated video memory in MiB, or -1 if unknown.
+     */
+    public int videoMemoryMiB = -1;
+    /**
+     * Whether the GPU shares memory with the CPU, or <code>null</code> if unknown.
+     */
+    public Boolean unifiedMemory;
+    /**
+     * The PCI vendor ID of the GPU, or -1 if unknown.
+     */
+    public int vendorId = -1;
+    /**
+     * The PCI device ID of the GPU, or -1 if unknown.
+     */
+    public int deviceId = -1;
+    /**
+     * The names of all supported OpenGL extensions.
+     */
+    public Set<String> extensions = Collections.emptySet();
+    /**
+     * The quality tier derived from the other fields.
+     */
+    public Tier tier;
+
+    /**
+     * Return a suggested number of multisampling samples for the {@link #tier}.
+     *
+     * @return the number of samples, 0 meaning no multisampling
+     */
+    public int getSuggestedSamples() {
+        switch (tier) {
+        case HIGH:
+            return 8;
+        case MEDIUM:
+            return 4;
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Return a suggested scale of the rendering resolution relative to the canvas size for the {@link #tier}.
+     *
+     * @return the resolution scale
+     */
+    public float getSuggestedResolutionScale() {
+        switch (tier) {
+        case HIGH:
+            return 1.0f;
+        case MEDIUM:
+            return 0.75f;
+        default:
+            return 0.5f;
+        }
+    }
+
+    /**
+     * Gather the renderer information of the current context without requiring {@link GL#createCapabilities()}.
+     */
+    static GLRendererInfo probe(GLCanvas canvas) {
+        GLRendererInfo info = new GLRendererInfo();
+        FunctionProvider functions = GL.getFunctionProvider();
+        long getString = functions.getFunctionAddress("glGetString");
+        long getInteger = functions.getFunctionAddress("glGetIntegerv");
+        long getError = functions.getFunctionAddress("glGetError");
+        info.vendor = string(JNI.callP(GL11.GL_VENDOR, getString));
+        info.renderer = string(JNI.callP(GL11.GL_RENDERER, getString));
+        info.version = string(JNI.callP(GL11.GL_VERSION, getString));
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            long value = MemoryUtil.memAddress(stack.callocInt(1));
+            Set<String> extensions = new HashSet<String>();
+            long getStringi = functions.getFunctionAddress("glGetStringi");
+            int count = 0;
+            if (getStringi != 0L) {
+                // GL_NUM_EXTENSIONS is an invalid enum before OpenGL 3.0, whose core profiles no longer support GL_EXTENSIONS
+                int pending = 0;
+                while (JNI.callI(getError) != GL11.GL_NO_ERROR && ++pending < 8) {
+                    // discard errors raised before, bounded for lost contexts that keep reporting
+                }
+                JNI.callPV(GL30.GL_NUM_EXTENSIONS, value, getInteger);
+                if (JNI.callI(getError) == GL11.GL_NO_ERROR)
+                    count = MemoryUtil.memGetInt(value);
+            }
+            if (count > 0) {
+                for (int i = 0; i < count; i++)
+                    extensions.add(string(JNI.callP(GL11.GL_EXTENSIONS, i, getStringi)));
+            } else {
+                String all = string(JNI.callP(GL11.GL_EXTENSIONS, getString));
+                for (String extension : all.split(" "))
+                    if (!extension.isEmpty())
+                        extensions.add(extension);
+            }
+            info.extensions = Collections.unmodifiableSet(extensions);
+            int[] result = new int[1];
+            if (GLCanvas.platformCanvas.queryRendererInteger(canvas, PlatformGLCanvas.GLX_RENDERER_ACCELERATED_MESA, result)) {
+                info.accelerated = result[0] != 0;
+                if (GLCanvas.platformCanvas.queryRendererInteger(canvas, PlatformGLCanvas.GLX_RENDERER_VIDEO_MEMORY_MESA, result))
+                    info.videoMemoryMiB = result[0];
+                if (GLCanvas.platformCanvas.queryRendererInteger(canvas, PlatformGLCanvas.GLX_RENDERER_UNIFIED_MEMORY_ARCHITECTURE_MESA, result))
+                    info.unifiedMemory = result[0] != 0;
+                if (GLCanvas.platformCanvas.queryRendererInteger(canvas, PlatformGLCanvas.GLX_RENDERER_VENDOR_ID_MESA, result))
+                    info.vendorId = result[0];
+                if (GLCanvas.platformCanvas.queryRendererInteger(canvas, PlatformGLCanvas.GLX_RENDERER_DEVICE_ID_MESA, result))
+                    info.deviceId = result[0];
+            } else if (extensions.contains("GL_NVX_gpu_memory_info")) {
+                JNI.callPV(NVXGPUMemoryInfo.GL_GPU_MEMORY_INFO_DEDICATED_VIDMEM_NVX, value, getInteger);
+                info.videoMemoryMiB = MemoryUtil.memGetInt(value) / 1024;
+                info.vendorId = VENDOR_NVIDIA;
+            }
+        }
+        info.tier = classify(info);
+        return info;
+    }
+
+    private static String string(long address) {
+        return address == 0L ? "" : MemoryUtil.memUTF8(address);
+    }
+
+    /**
+     * Derive the quality tier from the gathered information.
+     */
+    static Tier classify(GLRendererInfo info) {
+        String renderer = info.renderer.toLowerCase(Locale.ROOT);
+        if (Boolean.FALSE.equals(info.accelerated))
+            return Tier.LOW;
+        for (String software : SOFTWARE_RENDERERS)
+            if (renderer.contains(software))
+                return Tier.LOW;
+        String vendor = info.vendor.toLowerCase(Locale.ROOT);
+        int vendorId = info.vendorId;
+        if (vendorId == -1)
+            vendorId = vendor.contains("nvidia") ? VENDOR_NVIDIA
+                    : vendor.contains("intel") ? VENDOR_INTEL
+                    : vendor.contains("amd") || vendor.contains("ati technologies") ? VENDOR_AMD : -1;
+        if (Boolean.TRUE.equals(info.unifiedMemory) || vendorId == VENDOR_INTEL)
+            return Tier.MEDIUM;
+        if (info.videoMemoryMiB != -1)
+            return info.videoMemoryMiB >= 3072 ? Tier.HIGH : Tier.MEDIUM;
+        return vendorId == VENDOR_NVIDIA || vendorId == VENDOR_AMD ? Tier.HIGH : Tier.MEDIUM;
+    }
+
+}
@@ -0,0 +1,35 @@
+package org.lwjgl.opengl.swt;
+
+/**
+ * Notified when the context of a {@link GLCanvas} was lost due to a graphics reset and when it has been rebuilt, see
+ * {@link GLCanvas#addResetListener(GLResetListener)}.
+ *
+ * @author Kai Burjack
+ */
+public interface GLResetListener {
+
+    /**
+     * Invoked when {@link GLCanvas#swapBuffers()} of the canvas or another canvas of its share group detected a graphics reset, before the
+     * context is rebuilt. No GL objects of the lost
+     * context may be used anymore.
+     *
+     * @param canvas
+     *            the canvas
+     * @param status
+     *            the reset status, one of <code>GL_GUILTY_CONTEXT_RESET</code>, <code>GL_INNOCENT_CONTEXT_RESET</code> or
+     *            <code>GL_UNKNOWN_CONTEXT_RESET</code>
+     */
+    void contextLost(GLCanvas canvas, int status);
+
+    /**
+     * Invoked after a new context and drawable have been created for the canvas. The new context is current and
+     * <code>GL.createCapabilities()</code> has been called for it. The application should upload the objects it needs again, for example
+     * from cached CPU copies. This is not invoked on platforms that cannot recreate
+     * contexts, where the canvas must be disposed and created again instead.
+     *
+     * @param canvas
+     *            the canvas
+     */
+    void contextRestored(GLCanvas canvas);
+
+}
@@ -0,0 +1,199 @@
+package org.lwjgl.opengl.swt;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Releases the GPU resources of a {@link GLCanvas} that stays fully hidden for a while, installed via
+ * {@link GLCanvas#setSuspendPolicy(GLSuspendPolicy)}.
+ * <p>
+ * A canvas counts as hidden when it or any of its ancestors is invisible (for example an inactive tab), when its shell is minimized or
+ * when its client area is empty. This is polled on the SWT thread. A canvas that is merely covered by other windows does not count as
+ * hidden, since SWT cannot tell whether a window is occluded; its shell must be minimized or the canvas hidden to suspend it. After the canvas has been hidden for the configured time, it is
+ * suspended according to the {@link Mode} and the {@link Listener} is notified, so that the application can drop its own caches. Once the
+ * canvas is visible again, or {@link GLCanvas#setCurrent()} is called, it is resumed transparently and the listener is notified again.
+ * <p>
+ * A policy belongs to a single canvas.
+ *
+ * @author Kai Burjack
+ */
+public class GLSuspendPolicy {
+
+    /**
+     * How a hidden canvas is suspended.
+     */
+    public static enum Mode {
+        /**
+         * Shrink the drawable to 1x1 pixels, releasing its color, depth and multisample buffers while keeping the context and all GL
+         * objects. This is only supported on Linux, where the drawable is a separate window; elsewhere nothing is released.
+         */
+        SHRINK_DRAWABLE,
+        /**
+         * Destroy the context and drawable. All GL objects not shared with another canvas are lost and must be recreated after resuming.
+         * This is only supported on Linux and Windows; elsewhere {@link GLCanvas#setSuspendPolicy(GLSuspendPolicy)} throws an
+         * {@link UnsupportedOperationException}.
+         * <p>
+         * The first canvas of a share group is only shrunk as with {@link #SHRINK_DRAWABLE} while other canvases or a
+         * {@link GLWorkerService} share its objects, since a recreated context could not join their share group again. The same holds for
+         * a canvas whose {@link GLData#shareContext} has been disposed.
+         */
+        DESTROY_CONTEXT;
+    }
+
+    /**
+     * Notified on the SWT thread when a canvas is suspended or resumed.
+     */
+    public interface Listener {
+        /**
+         * Invoked after the canvas has been suspended.
+         *
+         * @param canvas
+         *            the canvas
+         * @param reclaimedBytes
+         *            an estimate of the framebuffer memory released, in bytes
+         */
+        void suspended(GLCanvas canvas, long reclaimedBytes);
+
+        /**
+         * Invoked after the canvas has been resumed. The context of the canvas is current and, if it has been recreated,
+         * <code>GL.createCapabilities()</code> has been called for it.
+         *
+         * @param canvas
+         *            the canvas
+         * @param contextRecreated
+         *            whether the context has been recreated and all its objects must be uploaded again
+         */
+        void resumed(GLCanvas canvas, boolean contextRecreated);
+    }
+
+    private final Mode mode;
+    private final long hiddenMillis;
+    private final Listener listener;
+    private GLCanvas canvas;
+    private long hiddenSince = -1L;
+    private boolean suspended;
+    private long reclaimedBytes;
+
+    /**
+     * Create a suspension policy.
+     *
+     * @param mode
+     *            how to suspend the canvas
+     * @param hiddenMillis
+     *            how long the canvas must be hidden before it is suspended, in milliseconds
+     * @param listener
+     *            notified on suspension and resumption, or <code>null</code>
+     */
+    public GLSuspendPolicy(Mode mode, long hiddenMillis, Listener listener) {
+        if (mode == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        if (hiddenMillis < 0L)
+            throw new IllegalArgumentException("Invalid hidden time");
+        this.mode = mode;
+        this.hiddenMillis = hiddenMillis;
+        this.listener = listener;
+    }
+
+    void checkSupported() {
+        if (mode == Mode.DESTROY_CONTEXT && !GLCanvas.platformCanvas.canRecreateContext())
+            throw new UnsupportedOperationException("Destroying and recreating contexts is not supported on this platform");
+    }
+
+    void attach(GLCanvas canvas) {
+        if (this.canvas != null)
+            throw new IllegalStateException("GLSuspendPolicy is already used by another canvas");
+        this.canvas = canvas;
+        schedule();
+    }
+
+    void detach() {
+        resume();
+        canvas = null;
+    }
+
+    private void schedule() {
+        int interval = (int) Math.max(100L, Math.min(1000L, hiddenMillis / 4L));
+        canvas.getDisplay().timerExec(interval, this::poll);
+    }
+
+    private void poll() {
+        if (canvas == null || canvas.isDisposed())
+            return;
+        Rectangle clientArea = canvas.getClientArea();
+        boolean hidden = !canvas.isVisible() || canvas.getShell().getMinimized() || clientArea.width == 0 || clientArea.height == 0;
+        long now = System.currentTimeMillis();
+        if (!hidden) {
+            hiddenSince = -1L;
+            resume();
+        } else if (hiddenSince == -1L) {
+            hiddenSince = now;
+        } else if (!suspended && now - hiddenSince >= hiddenMillis) {
+            suspend();
+        }
+        schedule();
+    }
+
+    private void suspend() {
+        if (canvas.context == 0L)
+            return;
+        long bytes = framebufferBytes();
+        boolean released;
+        if (mode == Mode.SHRINK_DRAWABLE || !canDestroyContext()) {
+            released = GLCanvas.platformCanvas.resizeDrawable(canvas, 1, 1);
+        } else {
+            canvas.destroyContext();
+            released = true;
+        }
+        reclaimedBytes = released ? bytes : 0L;
+        suspended = true;
+        if (listener != null)
+            listener.suspended(canvas, reclaimedBytes);
+    }
+
+    private boolean canDestroyContext() {
+        if (canvas.shareGroup == canvas)
+            return canvas.shareDependents.isEmpty() && canvas.shareWorkers.get() == 0;
+        return !canvas.requested.shareContext.isDisposed();
+    }
+
+    /**
+     * Resume the canvas if it is suspended.
+     */
+    void resume() {
+        if (!suspended || canvas.isDisposed())
+            return;
+        suspended = false;
+        boolean recreated = canvas.context == 0L;
+        if (recreated) {
+            canvas.createContext();
+        } else {
+            GLCanvas.platformCanvas.fitDrawable(canvas);
+        }
+        canvas.setCurrent();
+        if (recreated)
+            canvas.contextRecreated();
+        if (listener != null)
+            listener.resumed(canvas, recreated);
+    }
+
+    private long framebufferBytes() {
+        Rectangle clientArea = canvas.getClientArea();
+        long pixels = (long) Math.max(1, clientArea.width) * Math.max(1, clientArea.height);
+        return pixels * canvas.framebufferBytesPerPixel();
+    }
+
+    /**
+     * @return whether the canvas is currently suspended
+     */
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * @return the estimated framebuffer memory released by the current or last suspension, in bytes
+     */
+    public long getReclaimedBytes() {
+        return reclaimedBytes;
+    }
+
+}
@@ -0,0 +1,207 @@
+package org.lwjgl.opengl.swt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+
+/**
+ * A logical viewport inside a {@link GLMultiViewCanvas}, created via {@link GLMultiViewCanvas#createView(Renderer)}.
+ * <p>
+ * A view either has explicit {@link #setBounds(int, int, int, int) bounds} or takes them from a placeholder {@link Control}, which is
+ * typically an invisible child of the canvas positioned by the canvas' layout. All methods must be called from the thread of the canvas.
+ *
+ * @author Kai Burjack
+ */
+public class GLView {
+
+    /**
+     * Renders the contents of a view.
+     */
+    public interface Renderer {
+        /**
+         * Render the view. The context of the canvas is current and viewport and scissor rectangle are set to the view.
+         *
+         * @param view
+         *            the view
+         * @param width
+         *            the width of the view in pixels
+         * @param height
+         *            the height of the view in pixels
+         */
+        void render(GLView view, int width, int height);
+    }
+
+    final GLMultiViewCanvas canvas;
+    final Renderer renderer;
+    final Rectangle bounds = new Rectangle(0, 0, 0, 0);
+    private final Map<Integer, List<Listener>> listeners = new HashMap<Integer, List<Listener>>();
+    private final Listener placeholderListener;
+    Control placeholder;
+    boolean dirty = true;
+    private boolean disposed;
+    private Object data;
+
+    GLView(GLMultiViewCanvas canvas, Renderer renderer) {
+        this.canvas = canvas;
+        this.renderer = renderer;
+        this.placeholderListener = event -> canvas.layoutViews();
+    }
+
+    /**
+     * Set the bounds of this view in canvas coordinates. This removes any placeholder.
+     *
+     * @param x
+     *            the x coordinate
+     * @param y
+     *            the y coordinate
+     * @param width
+     *            the width
+     * @param height
+     *            the height
+     */
+    public void setBounds(int x, int y, int width, int height) {
+        checkView();
+        removePlaceholder();
+        bounds.x = x;
+        bounds.y = y;
+        bounds.width = width;
+        bounds.height = height;
+        canvas.redrawAll();
+    }
+
+    /**
+     * Take the bounds of this view from the given control whenever the control is moved or resized.
+     *
+     * @param placeholder
+     *            the control, usually an invisible child of the canvas
+     */
+    public void setPlaceholder(Control placeholder) {
+        checkView();
+        if (placeholder == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        removePlaceholder();
+        this.placeholder = placeholder;
+        placeholder.addListener(SWT.Move, placeholderListener);
+        placeholder.addListener(SWT.Resize, placeholderListener);
+        canvas.layoutViews();
+    }
+
+    private void removePlaceholder() {
+        if (placeholder != null && !placeholder.isDisposed()) {
+            placeholder.removeListener(SWT.Move, placeholderListener);
+            placeholder.removeListener(SWT.Resize, placeholderListener);
+        }
+        placeholder = null;
+    }
+
+    /**
+     * @return the bounds of this view in canvas coordinates
+     */
+    public Rectangle getBounds() {
+        checkView();
+        return new Rectangle(bounds.x, bounds.y, bounds.width, bounds.height);
+    }
+
+    /**
+     * Request this view to be rendered again. Requests of all views are coalesced into a single frame with a single swap.
+     */
+    public void redraw() {
+        checkView();
+        dirty = true;
+        canvas.scheduleFrame();
+    }
+
+    /**
+     * Add a listener for mouse events within this view. Event coordinates are relative to the view.
+     *
+     * @param eventType
+     *            one of <code>SWT.MouseDown</code>, <code>SWT.MouseUp</code>, <code>SWT.MouseMove</code>, <code>SWT.MouseDoubleClick</code>,
+     *            <code>SWT.MouseWheel</code>, <code>SWT.MouseEnter</code> or <code>SWT.MouseExit</code>
+     * @param listener
+     *            the listener
+     */
+    public void addListener(int eventType, Listener listener) {
+        checkView();
+        if (listener == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        listeners.computeIfAbsent(eventType, k -> new ArrayList<Listener>()).add(listener);
+    }
+
+    /**
+     * Remove a listener added via {@link #addListener(int, Listener)}.
+     *
+     * @param eventType
+     *            the event type
+     * @param listener
+     *            the listener
+     */
+    public void removeListener(int eventType, Listener listener) {
+        checkView();
+        List<Listener> list = listeners.get(eventType);
+        if (list != null)
+            list.remove(listener);
+    }
+
+    void notifyListeners(Event event) {
+        List<Listener> list = listeners.get(event.type);
+        if (list == null)
+            return;
+        for (Listener listener : list.toArray(new Listener[list.size()]))
+            listener.handleEvent(event);
+    }
+
+    /**
+     * @param data
+     *            application-defined data associated with this view
+     */
+    public void setData(Object data) {
+        checkView();
+        this.data = data;
+    }
+
+    /**
+     * @return the application-defined data associated with this view
+     */
+    public Object getData() {
+        checkView();
+        return data;
+    }
+
+    /**
+     * @return the {@link GLMultiViewCanvas} hosting this view
+     */
+    public GLMultiViewCanvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * @return whether this view has been disposed
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Remove this view from its canvas.
+     */
+    public void dispose() {
+        if (disposed)
+            return;
+        disposed = true;
+        removePlaceholder();
+        canvas.removeView(this);
+    }
+
+    private void checkView() {
+        if (disposed)
+            SWT.error(SWT.ERROR_WIDGET_DISPOSED);
+    }
+
+}
@@ -0,0 +1,311 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL21.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.lwjgl.opengl.GL;
+
+/**
+ * Runs OpenGL resource uploads on background threads, each owning a window-less worker context in the share group of a
+ * {@link GLCanvas}.
+ * <p>
+ * Worker contexts are created with the same attributes as the canvas' context and are bound to a 1x1 pbuffer (on Linux via GLX 1.3).
+ * A {@link Job} runs with a worker context current and creates or fills GL objects, for example via
+ * {@link #uploadTexture2D(ByteBuffer, int, int, int, int, int)} or {@link #uploadBuffer(int, ByteBuffer, int)}. Afterwards a
+ * <code>glFenceSync</code> is inserted and flushed, and the result is handed to the render thread as an {@link Upload}. The render thread
+ * polls {@link Upload#isReady()} without blocking and calls {@link Upload#get()} before using the object, which makes its own context wait
+ * for the fence on the server side.
+ * <p>
+ * On Linux the worker threads use the X11 display connection of GDK, so Xlib must have been initialized for multi-threaded use by calling
+ * <code>XInitThreads</code> before the SWT {@link org.eclipse.swt.widgets.Display} was created.
+ *
+ * @author Kai Burjack
+ */
+public class GLWorkerService {
+
+    /**
+     * A unit of work executed on a worker thread with a worker context current.
+     *
+     * @param <T>
+     *            the type of the result, typically the name of the created GL object
+     */
+    public interface Job<T> {
+        /**
+         * Perform the upload.
+         *
+         * @return the result to hand to the render thread
+         * @throws Exception
+         *             if the upload failed
+         */
+        T run() throws Exception;
+    }
+
+    /**
+     * The result of a submitted {@link Job}, to be consumed on the thread of the {@link GLCanvas}.
+     *
+     * @param <T>
+     *            the type of the result
+     */
+    public static final class Upload<T> {
+        private FutureTask<T> task;
+        private long fence;
+
+        /**
+         * Determine without blocking whether the job has completed and its GL commands have finished executing. The context of the
+         * {@link GLCanvas} must be current.
+         *
+         * @return <code>true</code> if the result can be used without any stall
+         */
+        public boolean isReady() {
+            if (!task.isDone())
+                return false;
+            synchronized (this) {
+                if (fence == NULL)
+                    return true;
+                int status = glClientWaitSync(fence, 0, 0L);
+                return status == GL_ALREADY_SIGNALED || status == GL_CONDITION_SATISFIED;
+            }
+        }
+
+        /**
+         * Wait for the job to complete and make the current context wait for its GL commands before returning the result. The context of
+         * the {@link GLCanvas} must be current.
+         *
+         * @return the result of the job
+         * @throws SWTException
+         *             <ul>
+         *             <li>ERROR_FAILED_EXEC - if the job failed or was discarded by {@link GLWorkerService#shutdown()}</li>
+         *             </ul>
+         */
+        public T get() {
+            T result;
+            try {
+                result = task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SWTException(SWT.ERROR_FAILED_EXEC, "Interrupted while waiting for upload");
+            } catch (ExecutionException e) {
+                throw new SWTException(SWT.ERROR_FAILED_EXEC, String.valueOf(e.getCause()));
+            } catch (CancellationException e) {
+                throw new SWTException(SWT.ERROR_FAILED_EXEC, "Upload was discarded by shutdown");
+            }
+            synchronized (this) {
+                if (fence != NULL) {
+                    glWaitSync(fence, 0, GL_TIMEOUT_IGNORED);
+                    glDeleteSync(fence);
+                    fence = NULL;
+                }
+            }
+            return result;
+        }
+    }
+
+    private final GLCanvas canvas;
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>();
+    private final Thread[] threads;
+    private final long[] drawables;
+    private final long[] contexts;
+    private volatile boolean shutdown;
+
+    /**
+     * Create worker contexts in the share group of the given canvas and start one background thread for each of them.
+     * <p>
+     * This must be called from the thread that created the canvas. The worker threads are stopped and their contexts destroyed when the
+     * canvas is disposed.
+     *
+     * @param canvas
+     *            the {@link GLCanvas} whose context objects will be shared with the worker contexts
+     * @param threadCount
+     *            the number of worker threads
+     * @throws UnsupportedOperationException
+     *             if worker contexts are not supported on this platform or the display connection is not initialized for multiple threads
+     */
+    public GLWorkerService(GLCanvas canvas, int threadCount) {
+        // Widget.checkWidget() is protected, so check the same conditions here
+        if (canvas.isDisposed())
+            SWT.error(SWT.ERROR_WIDGET_DISPOSED);
+        if (canvas.getDisplay().getThread() != Thread.currentThread())
+            SWT.error(SWT.ERROR_THREAD_INVALID_ACCESS);
+        if (threadCount <= 0)
+            throw new IllegalArgumentException("Invalid thread count");
+        // the worker contexts are created from the canvas' framebuffer configuration and context
+        canvas.awaitContext();
+        if (!GLCanvas.platformCanvas.isDisplayThreadSafe(canvas))
+            throw new UnsupportedOperationException("The display connection is not initialized for multiple threads, see XInitThreads");
+        this.canvas = canvas;
+        this.threads = new Thread[threadCount];
+        this.drawables = new long[threadCount];
+        this.contexts = new long[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            drawables[i] = GLCanvas.platformCanvas.createWorkerDrawable(canvas);
+            contexts[i] = GLCanvas.platformCanvas.createWorkerContext(canvas);
+        }
+        for (int i = 0; i < threadCount; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> work(index), "GLWorkerService-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        canvas.shareGroup.shareWorkers.incrementAndGet();
+        canvas.addListener(SWT.Dispose, event -> shutdown());
+    }
+
+    private void work(int index) {
+        GLCanvas.platformCanvas.makeWorkerCurrent(canvas, drawables[index], contexts[index]);
+        GL.createCapabilities();
+        try {
+            while (!shutdown) {
+                Runnable r;
+                try {
+                    r = queue.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+                r.run();
+            }
+        } finally {
+            GL.setCapabilities(null);
+            GLCanvas.platformCanvas.deleteWorker(canvas, drawables[index], contexts[index]);
+        }
+    }
+
+    /**
+     * Submit the given job to be executed on one of the worker threads.
+     *
+     * @param job
+     *            the job
+     * @param <T>
+     *            the type of the result
+     * @return the {@link Upload} handle to be consumed on the canvas' thread
+     */
+    public <T> Upload<T> submit(Job<T> job) {
+        if (shutdown)
+            throw new IllegalStateException("GLWorkerService has been shut down");
+        final Upload<T> upload = new Upload<T>();
+        upload.task = new FutureTask<T>(new Callable<T>() {
+            public T call() throws Exception {
+                T result = job.run();
+                long fence = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+                glFlush();
+                synchronized (upload) {
+                    upload.fence = fence;
+                }
+                return result;
+            }
+        });
+        queue.add(upload.task);
+        return upload;
+    }
+
+    /**
+     * Upload the given pixels into a new 2D texture through a pixel buffer object. Must be called from within a {@link Job}.
+     * <p>
+     * The texture only has a base level and its <code>GL_TEXTURE_MAX_LEVEL</code> is set to 0, so that it is complete with the default
+     * minification filter. To use mipmaps, raise the maximum level and call <code>glGenerateMipmap</code>.
+     *
+     * @param pixels
+     *            the pixel data
+     * @param width
+     *            the width of the texture
+     * @param height
+     *            the height of the texture
+     * @param internalFormat
+     *            the internal format of the texture
+     * @param format
+     *            the format of <code>pixels</code>
+     * @param type
+     *            the type of <code>pixels</code>
+     * @return the name of the new texture
+     */
+    public static int uploadTexture2D(ByteBuffer pixels, int width, int height, int internalFormat, int format, int type) {
+        int pbo = glGenBuffers();
+        glBindBuffer(GL_PIXEL_UNPACK_BUFFER, pbo);
+        glBufferData(GL_PIXEL_UNPACK_BUFFER, pixels.remaining(), GL_STREAM_DRAW);
+        ByteBuffer mapped = glMapBufferRange(GL_PIXEL_UNPACK_BUFFER, 0L, pixels.remaining(),
+                GL_MAP_WRITE_BIT | GL_MAP_INVALIDATE_BUFFER_BIT | GL_MAP_UNSYNCHRONIZED_BIT);
+        if (mapped == null) {
+            glBindBuffer(GL_PIXEL_UNPACK_BUFFER, 0);
+            glDeleteBuffers(pbo);
+            throw new SWTException("Unable to map pixel buffer object");
+        }
+        memCopy(pixels, mapped);
+        glUnmapBuffer(GL_PIXEL_UNPACK_BUFFER);
+        int texture = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, texture);
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        glTexImage2D(GL_TEXTURE_2D, 0, internalFormat, width, height, 0, format, type, 0L);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, 0);
+        glBindTexture(GL_TEXTURE_2D, 0);
+        glBindBuffer(GL_PIXEL_UNPACK_BUFFER, 0);
+        glDeleteBuffers(pbo);
+        return texture;
+    }
+
+    /**
+     * Upload the given data into a new buffer object. Must be called from within a {@link Job}.
+     *
+     * @param target
+     *            the binding target used for the upload, such as <code>GL_ARRAY_BUFFER</code>
+     * @param data
+     *            the data
+     * @param usage
+     *            the usage hint
+     * @return the name of the new buffer object
+     */
+    public static int uploadBuffer(int target, ByteBuffer data, int usage) {
+        int buffer = glGenBuffers();
+        glBindBuffer(target, buffer);
+        glBufferData(target, data, usage);
+        glBindBuffer(target, 0);
+        return buffer;
+    }
+
+    /**
+     * Stop all worker threads and destroy their contexts. Jobs that have not started yet are discarded and their {@link Upload#get()}
+     * fails instead of blocking forever.
+     */
+    public void shutdown() {
+        if (shutdown)
+            return;
+        shutdown = true;
+        canvas.shareGroup.shareWorkers.decrementAndGet();
+        cancelQueued();
+        for (Thread t : threads)
+            t.interrupt();
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // jobs submitted concurrently with the shutdown
+        cancelQueued();
+    }
+
+    private void cancelQueued() {
+        List<Runnable> discarded = new ArrayList<Runnable>();
+        queue.drainTo(discarded);
+        for (Runnable r : discarded)
+            ((FutureTask<?>) r).cancel(false);
+    }
+
+}
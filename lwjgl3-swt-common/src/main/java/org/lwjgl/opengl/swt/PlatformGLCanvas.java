@@ -1,5 +1,6 @@
 package org.lwjgl.opengl.swt;
 
+import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Composite;
 
 /**
@@ -9,18 +10,67 @@ import org.eclipse.swt.widgets.Composite;
  */
 interface PlatformGLCanvas {
 
+    /* Attributes of GLX_MESA_query_renderer, used by queryRendererInteger */
+    int GLX_RENDERER_VENDOR_ID_MESA = 0x8183;
+    int GLX_RENDERER_DEVICE_ID_MESA = 0x8184;
+    int GLX_RENDERER_ACCELERATED_MESA = 0x8186;
+    int GLX_RENDERER_VIDEO_MEMORY_MESA = 0x8187;
+    int GLX_RENDERER_UNIFIED_MEMORY_ARCHITECTURE_MESA = 0x8188;
+
     long create(GLCanvas canvas, GLData attribs, GLData effective);
 
+    boolean prepareCreate(GLCanvas canvas, GLData attribs);
+
+    long createContext(GLCanvas canvas, GLData attribs, GLData effective);
+
+    void attachContext(GLCanvas canvas, GLData attribs, long context);
+
     boolean isCurrent(long context);
 
+    boolean isCurrent(GLCanvas canvas, long context);
+
     boolean makeCurrent(GLCanvas canvas, long context);
 
+    long[] saveCurrent();
+
+    void restoreCurrent(GLCanvas canvas, long[] saved);
+
     boolean deleteContext(GLCanvas canvas, long context);
 
     boolean swapBuffers(GLCanvas canvas);
 
+    boolean swapBuffers(GLCanvas canvas, Rectangle[] damage);
+
+    int getBufferAge(GLCanvas canvas);
+
     boolean delayBeforeSwapNV(GLCanvas canvas, float seconds);
 
+    long createWorkerDrawable(GLCanvas canvas);
+
+    long createWorkerContext(GLCanvas canvas);
+
+    boolean makeWorkerCurrent(GLCanvas canvas, long drawable, long context);
+
+    void deleteWorker(GLCanvas canvas, long drawable, long context);
+
+    boolean getSyncValues(GLCanvas canvas, long[] ustMscSbc);
+
+    long swapBuffersMsc(GLCanvas canvas, long targetMsc, long divisor, long remainder);
+
+    boolean waitForMsc(GLCanvas canvas, long targetMsc, long divisor, long remainder, long[] ustMscSbc);
+
+    boolean queryRendererInteger(GLCanvas canvas, int attribute, int[] value);
+
+    boolean setHighRatePointerInput(GLCanvas canvas, boolean enable);
+
+    boolean canRecreateContext();
+
+    boolean isDisplayThreadSafe(GLCanvas canvas);
+
+    boolean fitDrawable(GLCanvas canvas);
+
+    boolean resizeDrawable(GLCanvas canvas, int width, int height);
+
     int checkStyle(Composite parent, int style);
 
     void resetStyle(Composite parent);
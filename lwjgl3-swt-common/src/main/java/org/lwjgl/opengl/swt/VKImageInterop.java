@@ -0,0 +1,307 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.EXTMemoryObject.*;
+import static org.lwjgl.opengl.EXTMemoryObjectFD.*;
+import static org.lwjgl.opengl.EXTSemaphore.*;
+import static org.lwjgl.opengl.EXTSemaphoreFD.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.*;
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.vulkan.KHRExternalMemoryFd.*;
+import static org.lwjgl.vulkan.KHRExternalSemaphoreFd.*;
+import static org.lwjgl.vulkan.VK10.*;
+import static org.lwjgl.vulkan.VK11.*;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkExportMemoryAllocateInfo;
+import org.lwjgl.vulkan.VkExportSemaphoreCreateInfo;
+import org.lwjgl.vulkan.VkExternalMemoryImageCreateInfo;
+import org.lwjgl.vulkan.VkImageCreateInfo;
+import org.lwjgl.vulkan.VkMemoryAllocateInfo;
+import org.lwjgl.vulkan.VkMemoryDedicatedAllocateInfo;
+import org.lwjgl.vulkan.VkMemoryGetFdInfoKHR;
+import org.lwjgl.vulkan.VkMemoryRequirements;
+import org.lwjgl.vulkan.VkPhysicalDeviceMemoryProperties;
+import org.lwjgl.vulkan.VkSemaphoreCreateInfo;
+import org.lwjgl.vulkan.VkSemaphoreGetFdInfoKHR;
+
+/**
+ * Shares a Vulkan-rendered image with the OpenGL context of a {@link GLCanvas} without copying.
+ * <p>
+ * The image and two semaphores are allocated as exportable objects via <code>VK_KHR_external_memory_fd</code> and
+ * <code>VK_KHR_external_semaphore_fd</code> and imported into the context of the {@link GLCanvas} via
+ * <code>GL_EXT_memory_object_fd</code> and <code>GL_EXT_semaphore_fd</code>. The device must have been created with those
+ * extensions (and <code>VK_KHR_dedicated_allocation</code> or Vulkan 1.1) enabled.
+ * <p>
+ * A frame is exchanged as follows:
+ * <ol>
+ * <li>Vulkan renders into {@link #getImage()}, waiting on {@link #getGLReleasedSemaphore()} (except for the very first frame) and
+ * signalling {@link #getVKReadySemaphore()} on submission. The image must be left in
+ * <code>VK_IMAGE_LAYOUT_SHADER_READ_ONLY_OPTIMAL</code>.</li>
+ * <li>The GL side calls {@link #acquire()} and then samples {@link #getTexture()}.</li>
+ * <li>The GL side calls {@link #release()} once it no longer samples the texture, which hands the image back to Vulkan.</li>
+ * </ol>
+ *
+ * @author Kai Burjack
+ */
+public class VKImageInterop {
+    private final GLCanvas canvas;
+    private final VkDevice device;
+    private final int width;
+    private final int height;
+
+    private long image;
+    private long memory;
+    private long vkReadySemaphore;
+    private long glReleasedSemaphore;
+
+    private int memoryObject;
+    private int texture;
+    private int glReadySemaphore;
+    private int glReleaseSemaphore;
+
+    /**
+     * Create a shared RGBA8 image of the given size.
+     *
+     * @param canvas
+     *            the {@link GLCanvas} whose context will sample the image
+     * @param device
+     *            the Vulkan device rendering into the image
+     * @param width
+     *            the width of the image
+     * @param height
+     *            the height of the image
+     */
+    public VKImageInterop(GLCanvas canvas, VkDevice device, int width, int height) {
+        if (canvas == null || device == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Invalid size");
+        this.canvas = canvas;
+        this.device = device;
+        this.width = width;
+        this.height = height;
+        long[] previous = GLCanvas.platformCanvas.saveCurrent();
+        canvas.setCurrent();
+        try (MemoryStack stack = stackPush()) {
+            GLCapabilities caps = GL.getCapabilities();
+            if (!caps.GL_EXT_memory_object_fd || !caps.GL_EXT_semaphore_fd) {
+                throw new UnsupportedOperationException("GL_EXT_memory_object_fd and GL_EXT_semaphore_fd are required for Vulkan interop");
+            }
+            long size = createImage(stack);
+            importImage(exportMemory(stack), size, stack);
+            vkReadySemaphore = createSemaphore(stack);
+            glReleasedSemaphore = createSemaphore(stack);
+            glReadySemaphore = glGenSemaphoresEXT();
+            glImportSemaphoreFdEXT(glReadySemaphore, GL_HANDLE_TYPE_OPAQUE_FD_EXT, exportSemaphore(vkReadySemaphore, stack));
+            glReleaseSemaphore = glGenSemaphoresEXT();
+            glImportSemaphoreFdEXT(glReleaseSemaphore, GL_HANDLE_TYPE_OPAQUE_FD_EXT, exportSemaphore(glReleasedSemaphore, stack));
+        } finally {
+            restoreCurrent(previous);
+        }
+    }
+
+    private void restoreCurrent(long[] previous) {
+        if (previous != null)
+            GLCanvas.platformCanvas.restoreCurrent(canvas, previous);
+    }
+
+    private static void check(int err, String function) {
+        if (err != VK_SUCCESS) {
+            throw new SWTException("Calling " + function + " failed with error: " + err);
+        }
+    }
+
+    private long createImage(MemoryStack stack) {
+        VkExternalMemoryImageCreateInfo externalInfo = VkExternalMemoryImageCreateInfo.callocStack(stack)
+                .sType(VK_STRUCTURE_TYPE_EXTERNAL_MEMORY_IMAGE_CREATE_INFO)
+                .handleTypes(VK_EXTERNAL_MEMORY_HANDLE_TYPE_OPAQUE_FD_BIT);
+        VkImageCreateInfo imageInfo = VkImageCreateInfo.callocStack(stack)
+                .sType(VK_STRUCTURE_TYPE_IMAGE_CREATE_INFO)
+                .pNext(externalInfo.address())
+                .imageType(VK_IMAGE_TYPE_2D)
+                .format(VK_FORMAT_R8G8B8A8_UNORM)
+                .mipLevels(1)
+                .arrayLayers(1)
+                .samples(VK_SAMPLE_COUNT_1_BIT)
+                .tiling(VK_IMAGE_TILING_OPTIMAL)
+                .usage(VK_IMAGE_USAGE_COLOR_ATTACHMENT_BIT | VK_IMAGE_USAGE_SAMPLED_BIT | VK_IMAGE_USAGE_TRANSFER_DST_BIT)
+                .sharingMode(VK_SHARING_MODE_EXCLUSIVE)
+                .initialLayout(VK_IMAGE_LAYOUT_UNDEFINED);
+        imageInfo.extent().width(width).height(height).depth(1);
+        LongBuffer pHandle = stack.mallocLong(1);
+        check(vkCreateImage(device, imageInfo, null, pHandle), "vkCreateImage");
+        image = pHandle.get(0);
+
+        VkMemoryRequirements memReqs = VkMemoryRequirements.callocStack(stack);
+        vkGetImageMemoryRequirements(device, image, memReqs);
+        VkPhysicalDeviceMemoryProperties memProps = VkPhysicalDeviceMemoryProperties.callocStack(stack);
+        vkGetPhysicalDeviceMemoryProperties(device.getPhysicalDevice(), memProps);
+        int memoryTypeIndex = -1;
+        for (int i = 0; i < memProps.memoryTypeCount(); i++) {
+            if ((memReqs.memoryTypeBits() & (1 << i)) != 0
+                    && (memProps.memoryTypes(i).propertyFlags() & VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT) != 0) {
+                memoryTypeIndex = i;
+                break;
+            }
+        }
+        if (memoryTypeIndex == -1) {
+            throw new SWTException("No device-local memory type available for the shared image");
+        }
+        VkMemoryDedicatedAllocateInfo dedicatedInfo = VkMemoryDedicatedAllocateInfo.callocStack(stack)
+                .sType(VK_STRUCTURE_TYPE_MEMORY_DEDICATED_ALLOCATE_INFO)
+                .image(image);
+        VkExportMemoryAllocateInfo exportInfo = VkExportMemoryAllocateInfo.callocStack(stack)
+                .sType(VK_STRUCTURE_TYPE_EXPORT_MEMORY_ALLOCATE_INFO)
+                .pNext(dedicatedInfo.address())
+                .handleTypes(VK_EXTERNAL_MEMORY_HANDLE_TYPE_OPAQUE_FD_BIT);
+        VkMemoryAllocateInfo memAlloc = VkMemoryAllocateInfo.callocStack(stack)
+                .sType(VK_STRUCTURE_TYPE_MEMORY_ALLOCATE_INFO)
+                .pNext(exportInfo.address())
+                .allocationSize(memReqs.size())
+                .memoryTypeIndex(memoryTypeIndex);
+        check(vkAllocateMemory(device, memAlloc, null, pHandle), "vkAllocateMemory");
+        memory = pHandle.get(0);
+        check(vkBindImageMemory(device, image, memory, 0L), "vkBindImageMemory");
+        return memReqs.size();
+    }
+
+    private int exportMemory(MemoryStack stack) {
+        VkMemoryGetFdInfoKHR getFdInfo = VkMemoryGetFdInfoKHR.callocStack(stack)
+                .sType(VK_STRUCTURE_TYPE_MEMORY_GET_FD_INFO_KHR)
+                .memory(memory)
+                .handleType(VK_EXTERNAL_MEMORY_HANDLE_TYPE_OPAQUE_FD_BIT);
+        IntBuffer pFd = stack.mallocInt(1);
+        check(vkGetMemoryFdKHR(device, getFdInfo, pFd), "vkGetMemoryFdKHR");
+        return pFd.get(0);
+    }
+
+    private void importImage(int fd, long size, MemoryStack stack) {
+        memoryObject = glCreateMemoryObjectsEXT();
+        glMemoryObjectParameterivEXT(memoryObject, GL_DEDICATED_MEMORY_OBJECT_EXT, stack.ints(GL_TRUE));
+        // Ownership of the file descriptor is transferred to the GL implementation
+        glImportMemoryFdEXT(memoryObject, size, GL_HANDLE_TYPE_OPAQUE_FD_EXT, fd);
+        texture = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, texture);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_TILING_EXT, GL_OPTIMAL_TILING_EXT);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        glTexStorageMem2DEXT(GL_TEXTURE_2D, 1, GL_RGBA8, width, height, memoryObject, 0L);
+        glBindTexture(GL_TEXTURE_2D, 0);
+    }
+
+    private long createSemaphore(MemoryStack stack) {
+        VkExportSemaphoreCreateInfo exportInfo = VkExportSemaphoreCreateInfo.callocStack(stack)
+                .sType(VK_STRUCTURE_TYPE_EXPORT_SEMAPHORE_CREATE_INFO)
+                .handleTypes(VK_EXTERNAL_SEMAPHORE_HANDLE_TYPE_OPAQUE_FD_BIT);
+        VkSemaphoreCreateInfo semaphoreInfo = VkSemaphoreCreateInfo.callocStack(stack)
+                .sType(VK_STRUCTURE_TYPE_SEMAPHORE_CREATE_INFO)
+                .pNext(exportInfo.address());
+        LongBuffer pSemaphore = stack.mallocLong(1);
+        check(vkCreateSemaphore(device, semaphoreInfo, null, pSemaphore), "vkCreateSemaphore");
+        return pSemaphore.get(0);
+    }
+
+    private int exportSemaphore(long semaphore, MemoryStack stack) {
+        VkSemaphoreGetFdInfoKHR getFdInfo = VkSemaphoreGetFdInfoKHR.callocStack(stack)
+                .sType(VK_STRUCTURE_TYPE_SEMAPHORE_GET_FD_INFO_KHR)
+                .semaphore(semaphore)
+                .handleType(VK_EXTERNAL_SEMAPHORE_HANDLE_TYPE_OPAQUE_FD_BIT);
+        IntBuffer pFd = stack.mallocInt(1);
+        check(vkGetSemaphoreFdKHR(device, getFdInfo, pFd), "vkGetSemaphoreFdKHR");
+        return pFd.get(0);
+    }
+
+    /**
+     * Make the GL context wait until Vulkan has finished rendering the current frame into the shared image. The context of the
+     * {@link GLCanvas} must be current.
+     */
+    public void acquire() {
+        try (MemoryStack stack = stackPush()) {
+            glWaitSemaphoreEXT(glReadySemaphore, null, stack.ints(texture), stack.ints(GL_LAYOUT_SHADER_READ_ONLY_EXT));
+        }
+    }
+
+    /**
+     * Hand the shared image back to Vulkan after the GL context has finished sampling it. The context of the {@link GLCanvas} must be
+     * current.
+     */
+    public void release() {
+        try (MemoryStack stack = stackPush()) {
+            glSignalSemaphoreEXT(glReleaseSemaphore, null, stack.ints(texture), stack.ints(GL_LAYOUT_SHADER_READ_ONLY_EXT));
+        }
+        glFlush();
+    }
+
+    /**
+     * @return the Vulkan image to render into
+     */
+    public long getImage() {
+        return image;
+    }
+
+    /**
+     * @return the Vulkan semaphore to signal when rendering into {@link #getImage()} has completed
+     */
+    public long getVKReadySemaphore() {
+        return vkReadySemaphore;
+    }
+
+    /**
+     * @return the Vulkan semaphore to wait on before rendering into {@link #getImage()} again
+     */
+    public long getGLReleasedSemaphore() {
+        return glReleasedSemaphore;
+    }
+
+    /**
+     * @return the GL texture aliasing {@link #getImage()}
+     */
+    public int getTexture() {
+        return texture;
+    }
+
+    /**
+     * @return the width of the shared image
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the shared image
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Delete all GL and Vulkan objects. Neither API may use the image or semaphores anymore.
+     */
+    public void free() {
+        if (!canvas.isDisposed()) {
+            long[] previous = GLCanvas.platformCanvas.saveCurrent();
+            canvas.setCurrent();
+            glDeleteTextures(texture);
+            glDeleteMemoryObjectsEXT(memoryObject);
+            glDeleteSemaphoresEXT(glReadySemaphore);
+            glDeleteSemaphoresEXT(glReleaseSemaphore);
+            restoreCurrent(previous);
+        }
+        vkDestroySemaphore(device, vkReadySemaphore, null);
+        vkDestroySemaphore(device, glReleasedSemaphore, null);
+        vkDestroyImage(device, image, null);
+        vkFreeMemory(device, memory, null);
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.lwjgl.swt.jfr;
+
+/**
+ * Emits JDK Flight Recorder events for the operations of <code>GLCanvas</code> and <code>VKCanvas</code>.
+ * <p>
+ * Every operation is bracketed by a <code>begin*()</code> call, whose result is passed to the matching <code>end*()</code> call. This is
+ * the Java 8 version, in which all methods do nothing and are inlined away by the JIT. On Java 11 and later, the multi-release jar
+ * provides a version that creates the events only when they are enabled in a running recording, so that disabled events cost a single
+ * check per operation.
+ * <p>
+ * This class is not meant to be used by applications.
+ *
+ * @author Kai Burjack
+ */
+public final class CanvasEvents {
+
+    private CanvasEvents() {
+    }
+
+    public static Object beginCreate() {
+        return null;
+    }
+
+    /**
+     * @param event
+     *            the result of {@link #beginCreate()}
+     * @param canvas
+     *            the canvas
+     * @param async
+     *            whether the context was created on a background thread
+     * @param prepareNanos
+     *            the time spent realizing the widget, in nanoseconds
+     * @param contextNanos
+     *            the time spent choosing the pixel format and creating the context or surface, in nanoseconds
+     * @param probeNanos
+     *            the time spent probing the renderer, in nanoseconds
+     * @param attachNanos
+     *            the time spent creating and attaching the native window, in nanoseconds
+     */
+    public static void endCreate(Object event, Object canvas, boolean async, long prepareNanos, long contextNanos, long probeNanos,
+            long attachNanos) {
+    }
+
+    public static Object beginMakeCurrent() {
+        return null;
+    }
+
+    public static void endMakeCurrent(Object event, Object canvas) {
+    }
+
+    public static Object beginSwap() {
+        return null;
+    }
+
+    public static void endSwap(Object event, Object canvas, boolean partial, long presentedPixels) {
+    }
+
+    public static Object beginResize() {
+        return null;
+    }
+
+    public static void endResize(Object event, Object canvas, int width, int height) {
+    }
+
+    public static Object beginDispose() {
+        return null;
+    }
+
+    public static void endDispose(Object event, Object canvas) {
+    }
+
+    public static Object beginSwapchainRecreation() {
+        return null;
+    }
+
+    public static void endSwapchainRecreation(Object event, Object canvas, int result) {
+    }
+
+}
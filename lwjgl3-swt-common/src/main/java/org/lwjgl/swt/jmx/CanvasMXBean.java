@@ -0,0 +1,93 @@
+package org.lwjgl.swt.jmx;
+
+/**
+ * Management interface of a live <code>GLCanvas</code> or <code>VKCanvas</code>, registered with the platform MBean server under
+ * <code>org.lwjgl.swt:type=Canvas,name=&lt;class&gt;@&lt;identity hash&gt;</code> while the canvas exists.
+ * <p>
+ * Frame times are the times between two consecutive presents of the canvas. Times are summarized since the canvas was created or since
+ * the last {@link #resetStatistics()}, with a relative error of at most 12.5%.
+ *
+ * @author Kai Burjack
+ */
+public interface CanvasMXBean {
+
+    /**
+     * @return the name of the canvas, which is also part of its object name
+     */
+    String getName();
+
+    /**
+     * @return the class name of the canvas
+     */
+    String getType();
+
+    /**
+     * @return a summary of the effective attributes of the context or surface
+     */
+    String getConfiguration();
+
+    /**
+     * @return the time since the canvas was created, in milliseconds
+     */
+    long getUptimeMillis();
+
+    /**
+     * @return the width of the canvas in pixels
+     */
+    int getWidth();
+
+    /**
+     * @return the height of the canvas in pixels
+     */
+    int getHeight();
+
+    /**
+     * @return the number of frames presented during the last full second, or 0 if no frame has been presented for two seconds
+     */
+    double getFramesPerSecond();
+
+    /**
+     * @return the number of frames presented
+     */
+    long getFrameCount();
+
+    double getFrameTimeMeanMillis();
+
+    double getFrameTimeP50Millis();
+
+    double getFrameTimeP90Millis();
+
+    double getFrameTimeP99Millis();
+
+    double getFrameTimeMaxMillis();
+
+    /**
+     * @return the mean time spent presenting a frame, such as in <code>swapBuffers()</code>, in milliseconds
+     */
+    double getSwapTimeMeanMillis();
+
+    double getSwapTimeP99Millis();
+
+    double getSwapTimeMaxMillis();
+
+    /**
+     * @return the number of times the context of the canvas has been made current, which is always 0 for Vulkan
+     */
+    long getMakeCurrentCount();
+
+    /**
+     * @return the number of times the canvas has been resized
+     */
+    long getResizeCount();
+
+    /**
+     * @return a rough estimate of the memory used by the framebuffers or swapchain images of the canvas, in bytes
+     */
+    long getContextMemoryEstimateBytes();
+
+    /**
+     * Reset the frame and swap time statistics.
+     */
+    void resetStatistics();
+
+}
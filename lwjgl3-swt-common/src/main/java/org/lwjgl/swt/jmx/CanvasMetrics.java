@@ -0,0 +1,237 @@
+package org.lwjgl.swt.jmx;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the metrics of a single canvas and exposes them as a {@link CanvasMXBean}.
+ * <p>
+ * The recording methods are called from the thread of the canvas, the getters from any JMX thread. Recording neither locks nor
+ * allocates. Metrics are not registered at all when the system property <code>org.lwjgl.swt.jmx</code> is <code>false</code>.
+ * <p>
+ * This class is not meant to be used by applications.
+ *
+ * @author Kai Burjack
+ */
+public final class CanvasMetrics implements CanvasMXBean {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("org.lwjgl.swt.jmx", "true"));
+    private static final long SECOND = 1000000000L;
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final String name;
+    private final String type;
+    private final long bytesPerPixel;
+    private final long createdNanos = System.nanoTime();
+    private volatile String configuration;
+    private volatile int width;
+    private volatile int height;
+
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+    private final LatencyHistogram swapTimes = new LatencyHistogram();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong makeCurrents = new AtomicLong();
+    private final AtomicLong resizes = new AtomicLong();
+    private volatile long lastPresentNanos;
+    private volatile double framesPerSecond;
+    private long windowStartNanos;
+    private long windowFrames;
+
+    private CanvasMetrics(Object canvas, String configuration, long bytesPerPixel) {
+        this.type = canvas.getClass().getName();
+        // identity hash codes may collide, which would make the MBean names clash
+        this.name = canvas.getClass().getSimpleName() + "-" + NEXT_ID.incrementAndGet();
+        this.configuration = configuration;
+        this.bytesPerPixel = bytesPerPixel;
+    }
+
+    /**
+     * Create the metrics of the given canvas and register them.
+     *
+     * @param canvas
+     *            the canvas
+     * @param configuration
+     *            a summary of the effective attributes of the canvas
+     * @param bytesPerPixel
+     *            the bytes of all framebuffers or swapchain images per pixel, used to estimate their memory
+     * @return the metrics, or <code>null</code> if disabled
+     */
+    public static CanvasMetrics register(Object canvas, String configuration, long bytesPerPixel) {
+        if (!ENABLED)
+            return null;
+        CanvasMetrics metrics = new CanvasMetrics(canvas, configuration, bytesPerPixel);
+        CanvasRegistry.add(metrics);
+        return metrics;
+    }
+
+    /**
+     * Unregister these metrics when the canvas is disposed.
+     */
+    public void unregister() {
+        CanvasRegistry.remove(this);
+    }
+
+    /**
+     * @param configuration
+     *            the new summary of the effective attributes, after the context has been recreated
+     */
+    public void setConfiguration(String configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Record that a frame has been presented.
+     *
+     * @param startNanos
+     *            the {@link System#nanoTime()} when presenting started
+     * @param endNanos
+     *            the {@link System#nanoTime()} when presenting returned
+     */
+    public void presented(long startNanos, long endNanos) {
+        swapTimes.record(endNanos - startNanos);
+        long last = lastPresentNanos;
+        if (last != 0L)
+            frameTimes.record(endNanos - last);
+        lastPresentNanos = endNanos;
+        frames.incrementAndGet();
+        if (windowStartNanos == 0L)
+            windowStartNanos = endNanos;
+        windowFrames++;
+        long elapsed = endNanos - windowStartNanos;
+        if (elapsed >= SECOND) {
+            framesPerSecond = (double) windowFrames * SECOND / elapsed;
+            windowStartNanos = endNanos;
+            windowFrames = 0L;
+        }
+    }
+
+    /**
+     * Record that the context has been made current.
+     */
+    public void madeCurrent() {
+        makeCurrents.incrementAndGet();
+    }
+
+    /**
+     * Record the size of the canvas.
+     *
+     * @param width
+     *            the width in pixels
+     * @param height
+     *            the height in pixels
+     * @param resize
+     *            whether the canvas has been resized, as opposed to its initial size
+     */
+    public void setSize(int width, int height, boolean resize) {
+        this.width = width;
+        this.height = height;
+        if (resize)
+            resizes.incrementAndGet();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1E6;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public long getUptimeMillis() {
+        return (System.nanoTime() - createdNanos) / 1000000L;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public double getFramesPerSecond() {
+        return System.nanoTime() - lastPresentNanos > 2L * SECOND ? 0.0 : framesPerSecond;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return frames.get();
+    }
+
+    @Override
+    public double getFrameTimeMeanMillis() {
+        return millis(frameTimes.getMean());
+    }
+
+    @Override
+    public double getFrameTimeP50Millis() {
+        return millis(frameTimes.getPercentile(0.5));
+    }
+
+    @Override
+    public double getFrameTimeP90Millis() {
+        return millis(frameTimes.getPercentile(0.9));
+    }
+
+    @Override
+    public double getFrameTimeP99Millis() {
+        return millis(frameTimes.getPercentile(0.99));
+    }
+
+    @Override
+    public double getFrameTimeMaxMillis() {
+        return millis(frameTimes.getMax());
+    }
+
+    @Override
+    public double getSwapTimeMeanMillis() {
+        return millis(swapTimes.getMean());
+    }
+
+    @Override
+    public double getSwapTimeP99Millis() {
+        return millis(swapTimes.getPercentile(0.99));
+    }
+
+    @Override
+    public double getSwapTimeMaxMillis() {
+        return millis(swapTimes.getMax());
+    }
+
+    @Override
+    public long getMakeCurrentCount() {
+        return makeCurrents.get();
+    }
+
+    @Override
+    public long getResizeCount() {
+        return resizes.get();
+    }
+
+    @Override
+    public long getContextMemoryEstimateBytes() {
+        return (long) width * height * bytesPerPixel;
+    }
+
+    @Override
+    public void resetStatistics() {
+        frameTimes.reset();
+        swapTimes.reset();
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.lwjgl.swt.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers the {@link CanvasMetrics} of all live canvases with the platform MBean server, together with the global
+ * {@link CanvasRegistryMXBean}.
+ * <p>
+ * Failing to register an MBean, for example because of a security manager, only disables monitoring and never affects the canvas.
+ *
+ * @author Kai Burjack
+ */
+final class CanvasRegistry implements CanvasRegistryMXBean {
+
+    private static final String DOMAIN = "org.lwjgl.swt";
+    private static final CanvasRegistry INSTANCE = new CanvasRegistry();
+
+    private final ConcurrentHashMap<String, CanvasMetrics> canvases = new ConcurrentHashMap<String, CanvasMetrics>();
+    private boolean registered;
+
+    private CanvasRegistry() {
+    }
+
+    private static MBeanServer server() {
+        try {
+            return ManagementFactory.getPlatformMBeanServer();
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    static synchronized void add(CanvasMetrics metrics) {
+        INSTANCE.canvases.put(metrics.getName(), metrics);
+        MBeanServer server = server();
+        if (server == null)
+            return;
+        try {
+            if (!INSTANCE.registered) {
+                server.registerMBean(INSTANCE, new ObjectName(DOMAIN + ":type=Canvases"));
+                INSTANCE.registered = true;
+            }
+            server.registerMBean(metrics, new ObjectName(DOMAIN + ":type=Canvas,name=" + metrics.getName()));
+        } catch (JMException | SecurityException e) {
+            // monitoring is optional
+        }
+    }
+
+    static synchronized void remove(CanvasMetrics metrics) {
+        INSTANCE.canvases.remove(metrics.getName(), metrics);
+        MBeanServer server = server();
+        if (server == null)
+            return;
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=Canvas,name=" + metrics.getName());
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+        } catch (JMException | SecurityException e) {
+            // monitoring is optional
+        }
+    }
+
+    @Override
+    public int getCanvasCount() {
+        return canvases.size();
+    }
+
+    @Override
+    public String[] getCanvasNames() {
+        return canvases.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public long getTotalContextMemoryEstimateBytes() {
+        long total = 0L;
+        for (CanvasMetrics metrics : canvases.values())
+            total += metrics.getContextMemoryEstimateBytes();
+        return total;
+    }
+
+    @Override
+    public double getTotalFramesPerSecond() {
+        double total = 0.0;
+        for (CanvasMetrics metrics : canvases.values())
+            total += metrics.getFramesPerSecond();
+        return total;
+    }
+
+}
@@ -0,0 +1,31 @@
+package org.lwjgl.swt.jmx;
+
+/**
+ * Management interface listing all live canvases, registered with the platform MBean server under
+ * <code>org.lwjgl.swt:type=Canvases</code> when the first canvas is created.
+ *
+ * @author Kai Burjack
+ */
+public interface CanvasRegistryMXBean {
+
+    /**
+     * @return the number of live canvases
+     */
+    int getCanvasCount();
+
+    /**
+     * @return the names of the live canvases, see {@link CanvasMXBean#getName()}
+     */
+    String[] getCanvasNames();
+
+    /**
+     * @return the sum of the {@link CanvasMXBean#getContextMemoryEstimateBytes() memory estimates} of all live canvases, in bytes
+     */
+    long getTotalContextMemoryEstimateBytes();
+
+    /**
+     * @return the sum of the {@link CanvasMXBean#getFramesPerSecond() frame rates} of all live canvases
+     */
+    double getTotalFramesPerSecond();
+
+}
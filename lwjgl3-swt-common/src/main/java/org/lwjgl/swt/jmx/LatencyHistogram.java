@@ -0,0 +1,94 @@
+package org.lwjgl.swt.jmx;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations in nanoseconds that can be recorded into and read from any thread without locks and without allocation.
+ * <p>
+ * Values are counted in log-linear buckets: each power of two is split into {@link #SUB_BUCKETS} equally sized buckets, so that
+ * percentiles are reported with a relative error of at most 1/{@link #SUB_BUCKETS}. Readers may observe a recording in progress, in which
+ * case the count, the sum and the buckets can be off by one value.
+ *
+ * @author Kai Burjack
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    private static long midpoint(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift >>> 1);
+    }
+
+    void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        buckets.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value))
+            ;
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    long getMean() {
+        long n = count.get();
+        return n == 0L ? 0L : sum.get() / n;
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param fraction
+     *            the percentile as a fraction between 0 and 1
+     * @return the value below which the given fraction of the recorded values lie, or 0 if nothing was recorded
+     */
+    long getPercentile(double fraction) {
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++)
+            total += buckets.get(i);
+        if (total == 0L)
+            return 0L;
+        long rank = Math.max(1L, (long) Math.ceil(fraction * total));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank)
+                return Math.min(midpoint(i), max.get());
+        }
+        return max.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets.set(i, 0L);
+        count.set(0L);
+        sum.set(0L);
+        max.set(0L);
+    }
+
+}
@@ -0,0 +1,112 @@
+package org.lwjgl.vulkan.swt;
+
+import static org.lwjgl.vulkan.KHRSurface.*;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Point;
+import org.lwjgl.vulkan.VkInstance;
+import org.lwjgl.vulkan.VkPhysicalDevice;
+
+/**
+ * A display-less counterpart of {@link VKCanvas} backed by a <code>VK_EXT_headless_surface</code> surface.
+ * <p>
+ * It exposes the same {@link #surface} field contract as {@link VKCanvas}, so that a frame loop which creates its swapchain from
+ * <code>canvas.surface</code> runs unchanged without any window system, for example on Mesa lavapipe in a CI environment without an
+ * X server. The {@link VKData#instance} must have been created with the <code>VK_EXT_headless_surface</code> extension enabled.
+ * <p>
+ * Since a headless surface reports an undefined current extent, the swapchain extent is taken from {@link #getSize()}. Use
+ * {@link VKFrameReadback} to read back and checksum presented frames.
+ * 
+ * @author Kai Burjack
+ */
+public class HeadlessVKCanvas {
+    private static final PlatformVKCanvas platformCanvas = new PlatformHeadlessVKCanvas();
+
+    private final VkInstance instance;
+    private int width;
+    private int height;
+    private boolean disposed;
+
+    /**
+     * The Vulkan surface handle for this {@link HeadlessVKCanvas}.
+     */
+    public long surface;
+
+    /**
+     * Create a {@link HeadlessVKCanvas} using the attributes described in the supplied {@link VKData} object.
+     *
+     * @param width
+     *            the width of the virtual drawable in pixels
+     * @param height
+     *            the height of the virtual drawable in pixels
+     * @param data
+     *            the necessary data to create a HeadlessVKCanvas
+     */
+    public HeadlessVKCanvas(int width, int height, VKData data) {
+        if (data == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        this.instance = data.instance;
+        setSize(width, height);
+        surface = platformCanvas.create(null, data);
+    }
+
+    /**
+     * Set the size of the virtual drawable. Swapchains must be recreated by the application afterwards, just like after a resize of a
+     * {@link VKCanvas}.
+     * 
+     * @param width
+     *            the width in pixels
+     * @param height
+     *            the height in pixels
+     */
+    public void setSize(int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Invalid size");
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Return the size of the virtual drawable.
+     * 
+     * @return the size in pixels
+     */
+    public Point getSize() {
+        return new Point(width, height);
+    }
+
+    /**
+     * Determine whether there is presentation support for the given {@link VkPhysicalDevice} in a command queue of the specified
+     * <code>queueFamiliy</code>.
+     * 
+     * @param physicalDevice
+     *            the Vulkan {@link VkPhysicalDevice}
+     * @param queueFamily
+     *            the command queue family
+     * @return <code>true</code> of <code>false</code>
+     */
+    public boolean getPhysicalDevicePresentationSupport(VkPhysicalDevice physicalDevice, int queueFamily) {
+        return platformCanvas.getPhysicalDevicePresentationSupport(physicalDevice, queueFamily);
+    }
+
+    /**
+     * Destroy the surface. All swapchains created for it must have been destroyed before.
+     */
+    public void dispose() {
+        if (disposed)
+            return;
+        vkDestroySurfaceKHR(instance, surface, null);
+        surface = 0L;
+        disposed = true;
+    }
+
+    /**
+     * Return whether {@link #dispose()} has been called.
+     * 
+     * @return <code>true</code> if this canvas has been disposed
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+}
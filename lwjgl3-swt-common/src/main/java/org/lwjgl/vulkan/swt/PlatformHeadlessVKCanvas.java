@@ -0,0 +1,49 @@
+package org.lwjgl.vulkan.swt;
+
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.vulkan.EXTHeadlessSurface.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import java.nio.LongBuffer;
+
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Composite;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.vulkan.VkHeadlessSurfaceCreateInfoEXT;
+import org.lwjgl.vulkan.VkPhysicalDevice;
+
+/**
+ * Platform-independent implementation of {@link PlatformVKCanvas} creating surfaces via <code>VK_EXT_headless_surface</code>.
+ * 
+ * @author Kai Burjack
+ */
+class PlatformHeadlessVKCanvas implements PlatformVKCanvas {
+
+    public int checkStyle(Composite parent, int style) {
+        return style;
+    }
+
+    public void resetStyle(Composite parent) {
+    }
+
+    @Override
+    public long create(Composite composite, VKData data) {
+        try (MemoryStack stack = stackPush()) {
+            VkHeadlessSurfaceCreateInfoEXT sci = VkHeadlessSurfaceCreateInfoEXT.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_HEADLESS_SURFACE_CREATE_INFO_EXT);
+            LongBuffer pSurface = stack.mallocLong(1);
+            int err = vkCreateHeadlessSurfaceEXT(data.instance, sci, null, pSurface);
+            long surface = pSurface.get(0);
+            if (err != VK_SUCCESS) {
+                throw new SWTException("Calling vkCreateHeadlessSurfaceEXT failed with error: " + err);
+            }
+            return surface;
+        }
+    }
+
+    public boolean getPhysicalDevicePresentationSupport(VkPhysicalDevice physicalDevice, int queueFamily) {
+        // A headless surface has no presentation engine tied to a display, so every queue family is able to "present" to it
+        return true;
+    }
+
+}
@@ -1,9 +1,15 @@
 package org.lwjgl.vulkan.swt;
 
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.internal.DPIUtil;
 import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Composite;
+import org.lwjgl.swt.jfr.CanvasEvents;
+import org.lwjgl.swt.jmx.CanvasMetrics;
 import org.lwjgl.system.Platform;
+import org.lwjgl.vulkan.VkInstance;
 import org.lwjgl.vulkan.VkPhysicalDevice;
 
 /**
@@ -40,6 +46,18 @@ public class VKCanvas extends Canvas {
      */
     public long surface;
 
+    private VkInstance instance;
+
+    /**
+     * The pending flight recorder event of the last resize, ended when the swapchain has been recreated.
+     */
+    Object resizeEvent;
+
+    /**
+     * The JMX metrics of this canvas, or <code>null</code> if disabled.
+     */
+    CanvasMetrics metrics;
+
     /**
      * Create a {@link VKCanvas} widget using the attributes described in the supplied {@link VKData} object.
      *
@@ -57,7 +75,57 @@ public class VKCanvas extends Canvas {
         }
         if (data == null)
             SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        Object event = CanvasEvents.beginCreate();
+        long time = System.nanoTime();
         surface = platformCanvas.create(this, data);
+        CanvasEvents.endCreate(event, this, false, 0L, System.nanoTime() - time, 0L, 0L);
+        instance = data.instance;
+        addListener(SWT.Dispose, e -> {
+            Object disposeEvent = CanvasEvents.beginDispose();
+            if (disposeEvent != null) {
+                // added during the dispatch, so it runs after all other dispose listeners, which typically destroy the swapchain
+                addListener(SWT.Dispose, end -> CanvasEvents.endDispose(disposeEvent, this));
+            }
+        });
+        // assume a triple-buffered swapchain of 32-bit images for the memory estimate
+        metrics = CanvasMetrics.register(this, "Vulkan surface 0x" + Long.toHexString(surface), 3 * 4);
+        if (metrics != null) {
+            // the swapchain extent is in pixels and excludes the border
+            Rectangle clientArea = DPIUtil.autoScaleUp(getClientArea());
+            metrics.setSize(clientArea.width, clientArea.height, false);
+            addListener(SWT.Dispose, e -> metrics.unregister());
+        }
+        addListener(SWT.Resize, e -> {
+            // a pending resize without a swapchain recreation in between is reported at its size
+            endResize();
+            resizeEvent = CanvasEvents.beginResize();
+            if (metrics != null) {
+                Rectangle clientArea = DPIUtil.autoScaleUp(getClientArea());
+                metrics.setSize(clientArea.width, clientArea.height, true);
+            }
+        });
+    }
+
+    void endResize() {
+        if (resizeEvent == null)
+            return;
+        Point size = getSize();
+        CanvasEvents.endResize(resizeEvent, this, size.x, size.y);
+        resizeEvent = null;
+    }
+
+    /**
+     * Return the presentation support matrix of all physical devices and queue families of the given {@link VkInstance}.
+     * <p>
+     * The matrix is probed once per instance and cached. Call {@link VKPresentationSupport#invalidate(VkInstance)} before destroying the
+     * instance.
+     * 
+     * @param instance
+     *            the Vulkan instance
+     * @return the {@link VKPresentationSupport}
+     */
+    public static VKPresentationSupport getPresentationSupport(VkInstance instance) {
+        return VKPresentationSupport.get(instance, platformCanvas);
     }
 
     /**
@@ -71,6 +139,11 @@ public class VKCanvas extends Canvas {
      * @return <code>true</code> of <code>false</code>
      */
     public boolean getPhysicalDevicePresentationSupport(VkPhysicalDevice physicalDevice, int queueFamily) {
+        if (instance != null) {
+            VKPresentationSupport support = getPresentationSupport(instance);
+            if (support.contains(physicalDevice, queueFamily))
+                return support.isSupported(physicalDevice, queueFamily);
+        }
         return platformCanvas.getPhysicalDevicePresentationSupport(physicalDevice, queueFamily);
     }
 
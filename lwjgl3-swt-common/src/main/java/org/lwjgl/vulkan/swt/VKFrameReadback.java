@@ -0,0 +1,267 @@
+package org.lwjgl.vulkan.swt;
+
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.KHRSwapchain.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.zip.CRC32;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.vulkan.VkBufferCreateInfo;
+import org.lwjgl.vulkan.VkBufferImageCopy;
+import org.lwjgl.vulkan.VkCommandBuffer;
+import org.lwjgl.vulkan.VkCommandBufferAllocateInfo;
+import org.lwjgl.vulkan.VkCommandBufferBeginInfo;
+import org.lwjgl.vulkan.VkCommandPoolCreateInfo;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkFenceCreateInfo;
+import org.lwjgl.vulkan.VkImageMemoryBarrier;
+import org.lwjgl.vulkan.VkMemoryAllocateInfo;
+import org.lwjgl.vulkan.VkMemoryRequirements;
+import org.lwjgl.vulkan.VkPhysicalDeviceMemoryProperties;
+import org.lwjgl.vulkan.VkQueue;
+import org.lwjgl.vulkan.VkSubmitInfo;
+
+/**
+ * Reads back rendered swapchain images into host memory, for example to checksum frames in rendering regression tests running on a
+ * {@link HeadlessVKCanvas}.
+ * <p>
+ * The swapchain must have been created with <code>VK_IMAGE_USAGE_TRANSFER_SRC_BIT</code>. {@link #readback(long, int, int)} must be
+ * called after the rendering into the image has been submitted and before the image is presented. It expects the image to be in
+ * <code>VK_IMAGE_LAYOUT_PRESENT_SRC_KHR</code> layout and leaves it in that layout. The host-visible staging buffer is reused across
+ * frames and only reallocated when the frame size grows.
+ *
+ * @author Kai Burjack
+ */
+public class VKFrameReadback {
+
+    /**
+     * Callback receiving the tightly packed pixels of a read back frame.
+     */
+    public interface FrameListener {
+        /**
+         * Invoked with the pixels of a read back frame. The buffer is only valid for the duration of this call.
+         *
+         * @param pixels
+         *            the pixels of the frame, using the swapchain image format with 4 bytes per pixel
+         * @param width
+         *            the width of the frame
+         * @param height
+         *            the height of the frame
+         * @param frame
+         *            the number of frames read back so far, starting at 0
+         */
+        void frame(ByteBuffer pixels, int width, int height, long frame);
+    }
+
+    private final VkDevice device;
+    private final VkQueue queue;
+    private final FrameListener listener;
+    private final long commandPool;
+    private final VkCommandBuffer commandBuffer;
+    private final long fence;
+    private long buffer;
+    private long memory;
+    private long bufferSize;
+    private long frame;
+
+    /**
+     * Create a {@link VKFrameReadback}.
+     *
+     * @param device
+     *            the device owning the swapchain images
+     * @param queue
+     *            the queue to submit the copy commands to
+     * @param queueFamilyIndex
+     *            the family index of <code>queue</code>
+     * @param listener
+     *            receives the pixels of each read back frame
+     */
+    public VKFrameReadback(VkDevice device, VkQueue queue, int queueFamilyIndex, FrameListener listener) {
+        if (device == null || queue == null || listener == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        this.device = device;
+        this.queue = queue;
+        this.listener = listener;
+        try (MemoryStack stack = stackPush()) {
+            LongBuffer pHandle = stack.mallocLong(1);
+            VkCommandPoolCreateInfo cmdPoolInfo = VkCommandPoolCreateInfo.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_COMMAND_POOL_CREATE_INFO)
+                    .queueFamilyIndex(queueFamilyIndex)
+                    .flags(VK_COMMAND_POOL_CREATE_RESET_COMMAND_BUFFER_BIT);
+            check(vkCreateCommandPool(device, cmdPoolInfo, null, pHandle), "vkCreateCommandPool");
+            commandPool = pHandle.get(0);
+            VkCommandBufferAllocateInfo cmdBufAllocateInfo = VkCommandBufferAllocateInfo.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_ALLOCATE_INFO)
+                    .commandPool(commandPool)
+                    .level(VK_COMMAND_BUFFER_LEVEL_PRIMARY)
+                    .commandBufferCount(1);
+            PointerBuffer pCommandBuffer = stack.mallocPointer(1);
+            check(vkAllocateCommandBuffers(device, cmdBufAllocateInfo, pCommandBuffer), "vkAllocateCommandBuffers");
+            commandBuffer = new VkCommandBuffer(pCommandBuffer.get(0), device);
+            VkFenceCreateInfo fenceInfo = VkFenceCreateInfo.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_FENCE_CREATE_INFO);
+            check(vkCreateFence(device, fenceInfo, null, pHandle), "vkCreateFence");
+            fence = pHandle.get(0);
+        }
+    }
+
+    private static void check(int err, String function) {
+        if (err != VK_SUCCESS) {
+            throw new SWTException("Calling " + function + " failed with error: " + err);
+        }
+    }
+
+    private void ensureBuffer(long size) {
+        if (size <= bufferSize)
+            return;
+        freeBuffer();
+        try (MemoryStack stack = stackPush()) {
+            LongBuffer pHandle = stack.mallocLong(1);
+            VkBufferCreateInfo bufferInfo = VkBufferCreateInfo.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_BUFFER_CREATE_INFO)
+                    .size(size)
+                    .usage(VK_BUFFER_USAGE_TRANSFER_DST_BIT)
+                    .sharingMode(VK_SHARING_MODE_EXCLUSIVE);
+            check(vkCreateBuffer(device, bufferInfo, null, pHandle), "vkCreateBuffer");
+            buffer = pHandle.get(0);
+            VkMemoryRequirements memReqs = VkMemoryRequirements.callocStack(stack);
+            vkGetBufferMemoryRequirements(device, buffer, memReqs);
+            VkPhysicalDeviceMemoryProperties memProps = VkPhysicalDeviceMemoryProperties.callocStack(stack);
+            vkGetPhysicalDeviceMemoryProperties(device.getPhysicalDevice(), memProps);
+            int wanted = VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT | VK_MEMORY_PROPERTY_HOST_COHERENT_BIT;
+            int memoryTypeIndex = -1;
+            for (int i = 0; i < memProps.memoryTypeCount(); i++) {
+                if ((memReqs.memoryTypeBits() & (1 << i)) != 0 && (memProps.memoryTypes(i).propertyFlags() & wanted) == wanted) {
+                    memoryTypeIndex = i;
+                    break;
+                }
+            }
+            if (memoryTypeIndex == -1) {
+                throw new SWTException("No host-visible and coherent memory type available for frame readback");
+            }
+            VkMemoryAllocateInfo memAlloc = VkMemoryAllocateInfo.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_MEMORY_ALLOCATE_INFO)
+                    .allocationSize(memReqs.size())
+                    .memoryTypeIndex(memoryTypeIndex);
+            check(vkAllocateMemory(device, memAlloc, null, pHandle), "vkAllocateMemory");
+            memory = pHandle.get(0);
+            check(vkBindBufferMemory(device, buffer, memory, 0L), "vkBindBufferMemory");
+            bufferSize = size;
+        }
+    }
+
+    private static void imageBarrier(VkCommandBuffer cmd, long image, int oldLayout, int srcAccess, int newLayout, int dstAccess,
+            MemoryStack stack) {
+        VkImageMemoryBarrier.Buffer barrier = VkImageMemoryBarrier.callocStack(1, stack)
+                .sType(VK_STRUCTURE_TYPE_IMAGE_MEMORY_BARRIER)
+                .oldLayout(oldLayout)
+                .srcAccessMask(srcAccess)
+                .newLayout(newLayout)
+                .dstAccessMask(dstAccess)
+                .srcQueueFamilyIndex(VK_QUEUE_FAMILY_IGNORED)
+                .dstQueueFamilyIndex(VK_QUEUE_FAMILY_IGNORED)
+                .image(image);
+        barrier.subresourceRange()
+                .aspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+                .baseMipLevel(0)
+                .levelCount(1)
+                .baseArrayLayer(0)
+                .layerCount(1);
+        vkCmdPipelineBarrier(cmd, VK_PIPELINE_STAGE_ALL_COMMANDS_BIT, VK_PIPELINE_STAGE_ALL_COMMANDS_BIT, 0, null, null, barrier);
+    }
+
+    /**
+     * Copy the given swapchain image into host memory and notify the {@link FrameListener}. This blocks until the copy has completed.
+     *
+     * @param image
+     *            the swapchain image, in <code>VK_IMAGE_LAYOUT_PRESENT_SRC_KHR</code> layout
+     * @param width
+     *            the width of the image
+     * @param height
+     *            the height of the image
+     */
+    public void readback(long image, int width, int height) {
+        long size = 4L * width * height;
+        ensureBuffer(size);
+        try (MemoryStack stack = stackPush()) {
+            VkCommandBufferBeginInfo beginInfo = VkCommandBufferBeginInfo.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_BEGIN_INFO)
+                    .flags(VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT);
+            check(vkBeginCommandBuffer(commandBuffer, beginInfo), "vkBeginCommandBuffer");
+            imageBarrier(commandBuffer, image, VK_IMAGE_LAYOUT_PRESENT_SRC_KHR, VK_ACCESS_MEMORY_READ_BIT,
+                    VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL, VK_ACCESS_TRANSFER_READ_BIT, stack);
+            VkBufferImageCopy.Buffer region = VkBufferImageCopy.callocStack(1, stack)
+                    .bufferOffset(0L)
+                    .bufferRowLength(0)
+                    .bufferImageHeight(0);
+            region.imageSubresource()
+                    .aspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+                    .mipLevel(0)
+                    .baseArrayLayer(0)
+                    .layerCount(1);
+            region.imageExtent()
+                    .width(width)
+                    .height(height)
+                    .depth(1);
+            vkCmdCopyImageToBuffer(commandBuffer, image, VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL, buffer, region);
+            imageBarrier(commandBuffer, image, VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL, VK_ACCESS_TRANSFER_READ_BIT,
+                    VK_IMAGE_LAYOUT_PRESENT_SRC_KHR, VK_ACCESS_MEMORY_READ_BIT, stack);
+            check(vkEndCommandBuffer(commandBuffer), "vkEndCommandBuffer");
+            VkSubmitInfo submitInfo = VkSubmitInfo.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_SUBMIT_INFO)
+                    .pCommandBuffers(stack.pointers(commandBuffer));
+            check(vkQueueSubmit(queue, submitInfo, fence), "vkQueueSubmit");
+            check(vkWaitForFences(device, fence, true, -1L), "vkWaitForFences");
+            check(vkResetFences(device, fence), "vkResetFences");
+            PointerBuffer pData = stack.mallocPointer(1);
+            check(vkMapMemory(device, memory, 0L, size, 0, pData), "vkMapMemory");
+            try {
+                listener.frame(memByteBuffer(pData.get(0), (int) size), width, height, frame++);
+            } finally {
+                vkUnmapMemory(device, memory);
+            }
+        }
+    }
+
+    /**
+     * Convenience method computing a CRC32 checksum over the remaining bytes of the given pixel buffer, without modifying its position.
+     *
+     * @param pixels
+     *            the pixels as received by {@link FrameListener#frame(ByteBuffer, int, int, long)}
+     * @return the CRC32 checksum
+     */
+    public static long checksum(ByteBuffer pixels) {
+        CRC32 crc = new CRC32();
+        crc.update(pixels.duplicate());
+        return crc.getValue();
+    }
+
+    private void freeBuffer() {
+        if (buffer != VK_NULL_HANDLE) {
+            vkDestroyBuffer(device, buffer, null);
+            buffer = VK_NULL_HANDLE;
+        }
+        if (memory != VK_NULL_HANDLE) {
+            vkFreeMemory(device, memory, null);
+            memory = VK_NULL_HANDLE;
+        }
+        bufferSize = 0L;
+    }
+
+    /**
+     * Destroy all Vulkan objects owned by this {@link VKFrameReadback}.
+     */
+    public void free() {
+        freeBuffer();
+        vkDestroyFence(device, fence, null);
+        vkDestroyCommandPool(device, commandPool, null);
+    }
+
+}
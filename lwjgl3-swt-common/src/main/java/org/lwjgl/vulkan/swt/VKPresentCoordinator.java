@@ -0,0 +1,469 @@
+package org.lwjgl.vulkan.swt;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.KHRIncrementalPresent.*;
+import static org.lwjgl.vulkan.KHRSwapchain.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.internal.DPIUtil;
+import org.eclipse.swt.widgets.Listener;
+import org.lwjgl.swt.jfr.CanvasEvents;
+import org.lwjgl.vulkan.VkPresentInfoKHR;
+import org.lwjgl.vulkan.VkPresentRegionKHR;
+import org.lwjgl.vulkan.VkPresentRegionsKHR;
+import org.lwjgl.vulkan.VkQueue;
+import org.lwjgl.vulkan.VkRectLayerKHR;
+
+/**
+ * Presents the acquired swapchain images of many {@link VKCanvas} instances sharing the same device and queue with a single
+ * <code>vkQueuePresentKHR</code> call.
+ * <p>
+ * Each canvas is {@link #register(VKCanvas, long, SwapchainRecreator) registered} once together with its current swapchain. Every frame the
+ * application {@link #queue(VKCanvas, int, long, Rectangle...) queues} the acquired image index of each canvas it rendered to, along with the semaphore
+ * signalled when rendering into that image completed, and finally calls {@link #present()}. The per-swapchain results of the combined
+ * present are inspected individually, so that a swapchain which became out of date only triggers the {@link SwapchainRecreator} of its
+ * own canvas.
+ * <p>
+ * Optionally, each queued image can carry damage rectangles describing the only regions that changed since the previous present of
+ * that swapchain. When <code>VK_KHR_incremental_present</code> has been {@link #setIncrementalPresent(boolean) enabled}, they are passed
+ * to the presentation engine via <code>VkPresentRegionsKHR</code>; otherwise they are ignored and the full images are presented. In both
+ * cases the {@link #getPresentedPixels() presented} and {@link #getDamagedPixels() damaged} pixel counters are updated, so that the
+ * bandwidth saved by incremental presentation can be observed.
+ * <p>
+ * All native memory is allocated up-front and grows only when more canvases are registered or more damage rectangles are queued, so
+ * presenting does not allocate in the steady state.
+ *
+ * @author Kai Burjack
+ */
+public class VKPresentCoordinator {
+
+    /**
+     * Callback invoked when the swapchain of a single registered canvas must be recreated.
+     */
+    public interface SwapchainRecreator {
+        /**
+         * Recreate the swapchain of the given canvas.
+         * <p>
+         * Implementations must communicate the new swapchain handle via {@link VKPresentCoordinator#setSwapchain(VKCanvas, long, int, int)}.
+         *
+         * @param canvas
+         *            the canvas whose swapchain is out of date or suboptimal
+         * @param result
+         *            the <code>VkResult</code> reported for that swapchain
+         */
+        void recreate(VKCanvas canvas, int result);
+    }
+
+    private static final class Entry {
+        final VKCanvas canvas;
+        final SwapchainRecreator recreator;
+        final Listener disposeListener;
+        long swapchain;
+        int width;
+        int height;
+        boolean queued;
+        int imageIndex;
+        long waitSemaphore;
+        int[] damage = new int[0];
+        int damageCount;
+
+        Entry(VKCanvas canvas, long swapchain, SwapchainRecreator recreator, Listener disposeListener) {
+            this.canvas = canvas;
+            this.swapchain = swapchain;
+            this.recreator = recreator;
+            this.disposeListener = disposeListener;
+        }
+    }
+
+    private final VkQueue queue;
+    private final List<Entry> entries = new ArrayList<Entry>();
+    private Entry[] pending = new Entry[0];
+    private int pendingCount;
+
+    private VkPresentInfoKHR presentInfo;
+    private LongBuffer pSwapchains;
+    private IntBuffer pImageIndices;
+    private IntBuffer pResults;
+    private LongBuffer pWaitSemaphores;
+    private int capacity;
+
+    private boolean incrementalPresent;
+    private VkPresentRegionsKHR presentRegions;
+    private VkPresentRegionKHR.Buffer pRegions;
+    private VkRectLayerKHR.Buffer pRectangles;
+    private long presentedPixels;
+    private long damagedPixels;
+
+    /**
+     * Create a new {@link VKPresentCoordinator} presenting on the given queue.
+     *
+     * @param queue
+     *            the queue with presentation support for all canvases that will be registered
+     */
+    public VKPresentCoordinator(VkQueue queue) {
+        if (queue == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        this.queue = queue;
+        this.presentInfo = VkPresentInfoKHR.calloc()
+                .sType(VK_STRUCTURE_TYPE_PRESENT_INFO_KHR)
+                .pNext(NULL);
+        ensureCapacity(4);
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= capacity)
+            return;
+        int newCapacity = Math.max(count, capacity * 2);
+        pSwapchains = memRealloc(pSwapchains, newCapacity);
+        pImageIndices = memRealloc(pImageIndices, newCapacity);
+        pResults = memRealloc(pResults, newCapacity);
+        pWaitSemaphores = memRealloc(pWaitSemaphores, newCapacity);
+        VkPresentRegionKHR.Buffer newRegions = VkPresentRegionKHR.calloc(newCapacity);
+        if (pRegions != null)
+            pRegions.free();
+        pRegions = newRegions;
+        Entry[] newPending = new Entry[newCapacity];
+        System.arraycopy(pending, 0, newPending, 0, pendingCount);
+        pending = newPending;
+        capacity = newCapacity;
+    }
+
+    private void ensureRectangles(int count) {
+        if (pRectangles != null && pRectangles.capacity() >= count)
+            return;
+        int newCapacity = Math.max(count, pRectangles != null ? pRectangles.capacity() * 2 : 16);
+        if (pRectangles != null)
+            pRectangles.free();
+        pRectangles = VkRectLayerKHR.calloc(newCapacity);
+    }
+
+    /**
+     * Set whether <code>VK_KHR_incremental_present</code> has been enabled on the device and damage rectangles should be passed to the
+     * presentation engine.
+     * <p>
+     * When disabled (the default) any damage rectangles given to {@link #queue(VKCanvas, int, long, Rectangle...)} are only used for the
+     * pixel counters and the full swapchain images are presented.
+     *
+     * @param enabled
+     *            whether to use incremental presentation
+     */
+    public void setIncrementalPresent(boolean enabled) {
+        if (enabled && presentRegions == null) {
+            presentRegions = VkPresentRegionsKHR.calloc()
+                    .sType(VK_STRUCTURE_TYPE_PRESENT_REGIONS_KHR)
+                    .pNext(NULL);
+        }
+        this.incrementalPresent = enabled;
+    }
+
+    /**
+     * @return whether damage rectangles are passed to the presentation engine
+     */
+    public boolean isIncrementalPresent() {
+        return incrementalPresent;
+    }
+
+    /**
+     * @return the total number of pixels of all swapchain images presented so far
+     */
+    public long getPresentedPixels() {
+        return presentedPixels;
+    }
+
+    /**
+     * Return the total number of pixels covered by damage rectangles of all images presented so far. Images queued without damage
+     * rectangles count with their full size. Overlapping rectangles are counted multiple times.
+     *
+     * @return the number of damaged pixels
+     */
+    public long getDamagedPixels() {
+        return damagedPixels;
+    }
+
+    /**
+     * Reset the {@link #getPresentedPixels() presented} and {@link #getDamagedPixels() damaged} pixel counters to zero.
+     */
+    public void resetCounters() {
+        presentedPixels = 0L;
+        damagedPixels = 0L;
+    }
+
+    private Entry entryFor(VKCanvas canvas) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            if (e.canvas == canvas)
+                return e;
+        }
+        return null;
+    }
+
+    /**
+     * Register the given canvas with its current swapchain.
+     * <p>
+     * The canvas is automatically unregistered when it is disposed.
+     *
+     * @param canvas
+     *            the canvas to register
+     * @param swapchain
+     *            the current swapchain created for {@link VKCanvas#surface}
+     * @param recreator
+     *            invoked whenever a combined present reports that this canvas' swapchain must be recreated
+     */
+    public void register(VKCanvas canvas, long swapchain, SwapchainRecreator recreator) {
+        if (canvas == null || recreator == null)
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        if (entryFor(canvas) != null)
+            throw new IllegalArgumentException("Canvas is already registered");
+        Listener listener = event -> unregister(canvas);
+        canvas.addListener(SWT.Dispose, listener);
+        Entry e = new Entry(canvas, swapchain, recreator, listener);
+        Rectangle extent = DPIUtil.autoScaleUp(canvas.getClientArea());
+        e.width = extent.width;
+        e.height = extent.height;
+        entries.add(e);
+        ensureCapacity(entries.size());
+    }
+
+    /**
+     * Remove the given canvas from this coordinator. A still queued image of that canvas will not be presented.
+     *
+     * @param canvas
+     *            the canvas to unregister
+     */
+    public void unregister(VKCanvas canvas) {
+        Entry e = entryFor(canvas);
+        if (e == null)
+            return;
+        entries.remove(e);
+        if (e.queued) {
+            int j = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                if (pending[i] != e)
+                    pending[j++] = pending[i];
+            }
+            pending[--pendingCount] = null;
+        }
+        if (!canvas.isDisposed())
+            canvas.removeListener(SWT.Dispose, e.disposeListener);
+    }
+
+    /**
+     * Update the swapchain handle of a registered canvas, typically after it has been recreated. The extent of the swapchain images is
+     * assumed to be the current client area of the canvas in pixels.
+     *
+     * @param canvas
+     *            the registered canvas
+     * @param swapchain
+     *            the new swapchain handle
+     */
+    public void setSwapchain(VKCanvas canvas, long swapchain) {
+        Rectangle extent = DPIUtil.autoScaleUp(canvas.getClientArea());
+        setSwapchain(canvas, swapchain, extent.width, extent.height);
+    }
+
+    /**
+     * Update the swapchain handle of a registered canvas, typically after it has been recreated.
+     *
+     * @param canvas
+     *            the registered canvas
+     * @param swapchain
+     *            the new swapchain handle
+     * @param width
+     *            the width of the swapchain images in pixels, i.e. <code>VkSwapchainCreateInfoKHR.imageExtent.width</code>
+     * @param height
+     *            the height of the swapchain images in pixels
+     */
+    public void setSwapchain(VKCanvas canvas, long swapchain, int width, int height) {
+        Entry e = entryFor(canvas);
+        if (e == null)
+            throw new IllegalArgumentException("Canvas is not registered");
+        e.swapchain = swapchain;
+        e.width = width;
+        e.height = height;
+    }
+
+    /**
+     * Queue the acquired image of the given canvas for the next {@link #present()}.
+     *
+     * @param canvas
+     *            the registered canvas
+     * @param imageIndex
+     *            the swapchain image index returned by <code>vkAcquireNextImageKHR</code>
+     * @param waitSemaphore
+     *            the semaphore to wait on before presenting the image, or {@link org.lwjgl.vulkan.VK10#VK_NULL_HANDLE VK_NULL_HANDLE}
+     * @param damage
+     *            the regions of the image that changed since the previous present of the same swapchain, in pixels with the origin at the
+     *            top-left corner. If none are given the whole image is considered damaged.
+     */
+    public void queue(VKCanvas canvas, int imageIndex, long waitSemaphore, Rectangle... damage) {
+        Entry e = entryFor(canvas);
+        if (e == null)
+            throw new IllegalArgumentException("Canvas is not registered");
+        if (e.queued)
+            throw new IllegalStateException("Canvas already has a queued image");
+        e.queued = true;
+        e.imageIndex = imageIndex;
+        e.waitSemaphore = waitSemaphore;
+        int n = 0;
+        if (damage != null && damage.length > 0) {
+            if (e.damage.length < damage.length * 4)
+                e.damage = new int[damage.length * 4];
+            for (int i = 0; i < damage.length; i++) {
+                // Clamp to the image, as rectangles outside of it are invalid for VK_KHR_incremental_present
+                int x0 = Math.max(0, damage[i].x), y0 = Math.max(0, damage[i].y);
+                int x1 = Math.min(e.width, damage[i].x + damage[i].width), y1 = Math.min(e.height, damage[i].y + damage[i].height);
+                if (x1 <= x0 || y1 <= y0)
+                    continue;
+                e.damage[n * 4] = x0;
+                e.damage[n * 4 + 1] = y0;
+                e.damage[n * 4 + 2] = x1 - x0;
+                e.damage[n * 4 + 3] = y1 - y0;
+                n++;
+            }
+            if (n == 0) {
+                // Everything was clipped away, still present but only count a single pixel to signal "nothing changed"
+                e.damage[0] = 0;
+                e.damage[1] = 0;
+                e.damage[2] = 1;
+                e.damage[3] = 1;
+                n = 1;
+            }
+        }
+        e.damageCount = n;
+        pending[pendingCount++] = e;
+    }
+
+    /**
+     * Present all queued images with a single <code>vkQueuePresentKHR</code> call.
+     * <p>
+     * For each swapchain that reports {@link org.lwjgl.vulkan.KHRSwapchain#VK_ERROR_OUT_OF_DATE_KHR VK_ERROR_OUT_OF_DATE_KHR} or
+     * {@link org.lwjgl.vulkan.KHRSwapchain#VK_SUBOPTIMAL_KHR VK_SUBOPTIMAL_KHR} the {@link SwapchainRecreator} of only that canvas is
+     * invoked.
+     *
+     * @return the number of images that were queued and submitted for presentation
+     * @throws SWTException
+     *             if presentation failed with an error that cannot be recovered by recreating a swapchain
+     */
+    public int present() {
+        int count = pendingCount;
+        if (count == 0)
+            return 0;
+        int semaphoreCount = 0;
+        int rectangleCount = 0;
+        for (int i = 0; i < count; i++) {
+            Entry e = pending[i];
+            pSwapchains.put(i, e.swapchain);
+            pImageIndices.put(i, e.imageIndex);
+            pResults.put(i, VK_SUCCESS);
+            if (e.waitSemaphore != VK_NULL_HANDLE)
+                pWaitSemaphores.put(semaphoreCount++, e.waitSemaphore);
+            rectangleCount += e.damageCount;
+            long area = (long) e.width * e.height;
+            presentedPixels += area;
+            if (e.damageCount == 0) {
+                damagedPixels += area;
+            } else {
+                for (int r = 0; r < e.damageCount; r++)
+                    damagedPixels += (long) e.damage[r * 4 + 2] * e.damage[r * 4 + 3];
+            }
+        }
+        long pNext = NULL;
+        if (incrementalPresent && rectangleCount > 0) {
+            ensureRectangles(rectangleCount);
+            int rect = 0;
+            for (int i = 0; i < count; i++) {
+                Entry e = pending[i];
+                VkPresentRegionKHR region = pRegions.get(i);
+                if (e.damageCount == 0) {
+                    region.pRectangles(null);
+                    continue;
+                }
+                for (int r = 0; r < e.damageCount; r++) {
+                    VkRectLayerKHR rectangle = pRectangles.get(rect + r);
+                    rectangle.offset().x(e.damage[r * 4]).y(e.damage[r * 4 + 1]);
+                    rectangle.extent().width(e.damage[r * 4 + 2]).height(e.damage[r * 4 + 3]);
+                    rectangle.layer(0);
+                }
+                region.pRectangles(VkRectLayerKHR.create(pRectangles.address() + (long) rect * VkRectLayerKHR.SIZEOF, e.damageCount));
+                rect += e.damageCount;
+            }
+            pRegions.limit(count);
+            presentRegions
+                .swapchainCount(count)
+                .pRegions(pRegions);
+            pNext = presentRegions.address();
+        }
+        pSwapchains.limit(count);
+        pImageIndices.limit(count);
+        pResults.limit(count);
+        pWaitSemaphores.limit(semaphoreCount);
+        presentInfo
+            .pNext(pNext)
+            .pWaitSemaphores(semaphoreCount > 0 ? pWaitSemaphores : null)
+            .swapchainCount(count)
+            .pSwapchains(pSwapchains)
+            .pImageIndices(pImageIndices)
+            .pResults(pResults);
+        long time = System.nanoTime();
+        int err = vkQueuePresentKHR(queue, presentInfo);
+        long presented = System.nanoTime();
+        pSwapchains.clear();
+        pImageIndices.clear();
+        pResults.clear();
+        pWaitSemaphores.clear();
+        pRegions.clear();
+        for (int i = 0; i < count; i++) {
+            pending[i].queued = false;
+            if (pending[i].canvas.metrics != null)
+                pending[i].canvas.metrics.presented(time, presented);
+        }
+        pendingCount = 0;
+        if (err != VK_SUCCESS && err != VK_SUBOPTIMAL_KHR && err != VK_ERROR_OUT_OF_DATE_KHR) {
+            throw new SWTException("Calling vkQueuePresentKHR failed with error: " + err);
+        }
+        for (int i = 0; i < count; i++) {
+            Entry e = pending[i];
+            pending[i] = null;
+            int result = pResults.get(i);
+            if (result == VK_ERROR_OUT_OF_DATE_KHR || result == VK_SUBOPTIMAL_KHR) {
+                if (!e.canvas.isDisposed()) {
+                    Object event = CanvasEvents.beginSwapchainRecreation();
+                    e.recreator.recreate(e.canvas, result);
+                    CanvasEvents.endSwapchainRecreation(event, e.canvas, result);
+                    e.canvas.endResize();
+                }
+            } else if (result != VK_SUCCESS) {
+                throw new SWTException("Presenting swapchain of canvas failed with error: " + result);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Unregister all canvases and free the native memory held by this coordinator.
+     */
+    public void free() {
+        while (!entries.isEmpty())
+            unregister(entries.get(entries.size() - 1).canvas);
+        presentInfo.free();
+        memFree(pSwapchains);
+        memFree(pImageIndices);
+        memFree(pResults);
+        memFree(pWaitSemaphores);
+        pRegions.free();
+        if (pRectangles != null)
+            pRectangles.free();
+        if (presentRegions != null)
+            presentRegions.free();
+        capacity = 0;
+    }
+
+}
@@ -0,0 +1,255 @@
+package org.lwjgl.vulkan.swt;
+
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.swt.SWTException;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.vulkan.VkInstance;
+import org.lwjgl.vulkan.VkPhysicalDevice;
+import org.lwjgl.vulkan.VkPhysicalDeviceProperties;
+import org.lwjgl.vulkan.VkQueueFamilyProperties;
+
+/**
+ * Presentation support matrix of all physical devices and queue families of a {@link VkInstance}.
+ * <p>
+ * The matrix is probed once per instance via {@link VKCanvas#getPresentationSupport(VkInstance)} and cached afterwards, so that device
+ * selection and {@link VKCanvas#getPhysicalDevicePresentationSupport(VkPhysicalDevice, int)} do not issue further native queries.
+ *
+ * @author Kai Burjack
+ */
+public class VKPresentationSupport {
+
+    /**
+     * The result of {@link VKPresentationSupport#select()}.
+     */
+    public static class Selection {
+        /**
+         * The selected physical device.
+         */
+        public final VkPhysicalDevice physicalDevice;
+        /**
+         * The <code>VkPhysicalDeviceType</code> of {@link #physicalDevice}.
+         */
+        public final int deviceType;
+        /**
+         * The queue family to use for graphics commands.
+         */
+        public final int graphicsQueueFamily;
+        /**
+         * The queue family to use for presentation. This equals {@link #graphicsQueueFamily} if a combined family was found.
+         */
+        public final int presentQueueFamily;
+
+        Selection(VkPhysicalDevice physicalDevice, int deviceType, int graphicsQueueFamily, int presentQueueFamily) {
+            this.physicalDevice = physicalDevice;
+            this.deviceType = deviceType;
+            this.graphicsQueueFamily = graphicsQueueFamily;
+            this.presentQueueFamily = presentQueueFamily;
+        }
+    }
+
+    private static final Map<Long, VKPresentationSupport> cache = new HashMap<Long, VKPresentationSupport>();
+
+    private final VkPhysicalDevice[] physicalDevices;
+    private final int[] deviceTypes;
+    private final int[][] queueFlags;
+    private final boolean[][] presentSupport;
+
+    private VKPresentationSupport(VkPhysicalDevice[] physicalDevices, int[] deviceTypes, int[][] queueFlags, boolean[][] presentSupport) {
+        this.physicalDevices = physicalDevices;
+        this.deviceTypes = deviceTypes;
+        this.queueFlags = queueFlags;
+        this.presentSupport = presentSupport;
+    }
+
+    static VKPresentationSupport get(VkInstance instance, PlatformVKCanvas platformCanvas) {
+        synchronized (cache) {
+            VKPresentationSupport support = cache.get(instance.address());
+            if (support == null) {
+                support = probe(instance, platformCanvas);
+                cache.put(instance.address(), support);
+            }
+            return support;
+        }
+    }
+
+    /**
+     * Remove the cached matrix of the given instance. This must be called before the instance is destroyed.
+     *
+     * @param instance
+     *            the {@link VkInstance} whose matrix to discard
+     */
+    public static void invalidate(VkInstance instance) {
+        synchronized (cache) {
+            cache.remove(instance.address());
+        }
+    }
+
+    private static VKPresentationSupport probe(VkInstance instance, PlatformVKCanvas platformCanvas) {
+        try (MemoryStack stack = stackPush()) {
+            IntBuffer pCount = stack.mallocInt(1);
+            int err = vkEnumeratePhysicalDevices(instance, pCount, null);
+            if (err != VK_SUCCESS) {
+                throw new SWTException("Calling vkEnumeratePhysicalDevices failed with error: " + err);
+            }
+            PointerBuffer pPhysicalDevices = stack.mallocPointer(pCount.get(0));
+            err = vkEnumeratePhysicalDevices(instance, pCount, pPhysicalDevices);
+            if (err != VK_SUCCESS) {
+                throw new SWTException("Calling vkEnumeratePhysicalDevices failed with error: " + err);
+            }
+            int deviceCount = pCount.get(0);
+            VkPhysicalDevice[] physicalDevices = new VkPhysicalDevice[deviceCount];
+            int[] deviceTypes = new int[deviceCount];
+            int[][] queueFlags = new int[deviceCount][];
+            boolean[][] presentSupport = new boolean[deviceCount][];
+            VkPhysicalDeviceProperties props = VkPhysicalDeviceProperties.callocStack(stack);
+            for (int i = 0; i < deviceCount; i++) {
+                VkPhysicalDevice physicalDevice = new VkPhysicalDevice(pPhysicalDevices.get(i), instance);
+                physicalDevices[i] = physicalDevice;
+                vkGetPhysicalDeviceProperties(physicalDevice, props);
+                deviceTypes[i] = props.deviceType();
+                vkGetPhysicalDeviceQueueFamilyProperties(physicalDevice, pCount, null);
+                int familyCount = pCount.get(0);
+                VkQueueFamilyProperties.Buffer families = VkQueueFamilyProperties.callocStack(familyCount, stack);
+                vkGetPhysicalDeviceQueueFamilyProperties(physicalDevice, pCount, families);
+                queueFlags[i] = new int[familyCount];
+                presentSupport[i] = new boolean[familyCount];
+                for (int f = 0; f < familyCount; f++) {
+                    queueFlags[i][f] = families.get(f).queueFlags();
+                    presentSupport[i][f] = platformCanvas.getPhysicalDevicePresentationSupport(physicalDevice, f);
+                }
+            }
+            return new VKPresentationSupport(physicalDevices, deviceTypes, queueFlags, presentSupport);
+        }
+    }
+
+    private int indexOf(VkPhysicalDevice physicalDevice) {
+        for (int i = 0; i < physicalDevices.length; i++) {
+            if (physicalDevices[i].address() == physicalDevice.address())
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Return all physical devices of the instance, in enumeration order.
+     *
+     * @return the physical devices
+     */
+    public VkPhysicalDevice[] getPhysicalDevices() {
+        return physicalDevices.clone();
+    }
+
+    /**
+     * Return the number of queue families of the given physical device.
+     *
+     * @param physicalDevice
+     *            the physical device
+     * @return the number of queue families, or <code>-1</code> if the device is not part of this matrix
+     */
+    public int getQueueFamilyCount(VkPhysicalDevice physicalDevice) {
+        int i = indexOf(physicalDevice);
+        return i == -1 ? -1 : queueFlags[i].length;
+    }
+
+    /**
+     * Return the <code>VkQueueFlags</code> of the given queue family.
+     *
+     * @param physicalDevice
+     *            the physical device
+     * @param queueFamily
+     *            the queue family index
+     * @return the queue flags
+     */
+    public int getQueueFlags(VkPhysicalDevice physicalDevice, int queueFamily) {
+        int i = indexOf(physicalDevice);
+        if (i == -1)
+            throw new IllegalArgumentException("Unknown physical device");
+        return queueFlags[i][queueFamily];
+    }
+
+    /**
+     * Determine whether the given queue family of the given physical device supports presentation.
+     *
+     * @param physicalDevice
+     *            the physical device
+     * @param queueFamily
+     *            the queue family index
+     * @return <code>true</code> of <code>false</code>
+     */
+    public boolean isSupported(VkPhysicalDevice physicalDevice, int queueFamily) {
+        int i = indexOf(physicalDevice);
+        if (i == -1)
+            throw new IllegalArgumentException("Unknown physical device");
+        return presentSupport[i][queueFamily];
+    }
+
+    boolean contains(VkPhysicalDevice physicalDevice, int queueFamily) {
+        int i = indexOf(physicalDevice);
+        return i != -1 && queueFamily >= 0 && queueFamily < presentSupport[i].length;
+    }
+
+    private static int rank(int deviceType) {
+        switch (deviceType) {
+        case VK_PHYSICAL_DEVICE_TYPE_DISCRETE_GPU:
+            return 4;
+        case VK_PHYSICAL_DEVICE_TYPE_INTEGRATED_GPU:
+            return 3;
+        case VK_PHYSICAL_DEVICE_TYPE_VIRTUAL_GPU:
+            return 2;
+        case VK_PHYSICAL_DEVICE_TYPE_CPU:
+            return 1;
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Select the best physical device and queue families for rendering and presentation.
+     * <p>
+     * Devices are ranked by their type (discrete, integrated, virtual, CPU, other). Within the same type, a device having a single queue
+     * family supporting both graphics and presentation is preferred over one needing separate families. When separate families are
+     * necessary, a dedicated present family without graphics support is preferred.
+     *
+     * @return the selection, or <code>null</code> if no device supports both graphics and presentation
+     */
+    public Selection select() {
+        Selection best = null;
+        int bestScore = -1;
+        for (int i = 0; i < physicalDevices.length; i++) {
+            int graphics = -1, present = -1, combined = -1;
+            for (int f = 0; f < queueFlags[i].length; f++) {
+                boolean isGraphics = (queueFlags[i][f] & VK_QUEUE_GRAPHICS_BIT) != 0;
+                if (isGraphics && presentSupport[i][f] && combined == -1)
+                    combined = f;
+                if (isGraphics && graphics == -1)
+                    graphics = f;
+                if (presentSupport[i][f] && (present == -1 || !isGraphics))
+                    present = f;
+            }
+            int score;
+            Selection candidate;
+            if (combined != -1) {
+                score = rank(deviceTypes[i]) * 2 + 1;
+                candidate = new Selection(physicalDevices[i], deviceTypes[i], combined, combined);
+            } else if (graphics != -1 && present != -1) {
+                score = rank(deviceTypes[i]) * 2;
+                candidate = new Selection(physicalDevices[i], deviceTypes[i], graphics, present);
+            } else {
+                continue;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.lwjgl.swt.jfr;
+
+/**
+ * Emits JDK Flight Recorder events for the operations of <code>GLCanvas</code> and <code>VKCanvas</code>.
+ * <p>
+ * This is the Java 11 version contained in the multi-release jar. A <code>begin*()</code> call only creates and begins an event when its
+ * type is enabled in a running recording and returns <code>null</code> otherwise, so that disabled events cost a single check per
+ * operation and no allocation.
+ * <p>
+ * The events are only emitted if the runtime contains the <code>jdk.jfr</code> module, which a custom runtime image may leave out.
+ * <p>
+ * This class is not meant to be used by applications.
+ *
+ * @author Kai Burjack
+ */
+public final class CanvasEvents {
+
+    /**
+     * Whether JFR can be used. Otherwise no events are created, and the <code>end*()</code> methods only ever see <code>null</code>.
+     */
+    private static final boolean AVAILABLE = isAvailable();
+
+    private CanvasEvents() {
+    }
+
+    private static boolean isAvailable() {
+        if (!ModuleLayer.boot().findModule("jdk.jfr").isPresent())
+            return false;
+        try {
+            JfrEvents.init();
+            return true;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    public static Object beginCreate() {
+        return AVAILABLE ? JfrEvents.beginCreate() : null;
+    }
+
+    public static void endCreate(Object event, Object canvas, boolean async, long prepareNanos, long contextNanos, long probeNanos,
+            long attachNanos) {
+        if (event != null)
+            JfrEvents.endCreate(event, canvas, async, prepareNanos, contextNanos, probeNanos, attachNanos);
+    }
+
+    public static Object beginMakeCurrent() {
+        return AVAILABLE ? JfrEvents.beginMakeCurrent() : null;
+    }
+
+    public static void endMakeCurrent(Object event, Object canvas) {
+        if (event != null)
+            JfrEvents.endMakeCurrent(event, canvas);
+    }
+
+    public static Object beginSwap() {
+        return AVAILABLE ? JfrEvents.beginSwap() : null;
+    }
+
+    public static void endSwap(Object event, Object canvas, boolean partial, long presentedPixels) {
+        if (event != null)
+            JfrEvents.endSwap(event, canvas, partial, presentedPixels);
+    }
+
+    public static Object beginResize() {
+        return AVAILABLE ? JfrEvents.beginResize() : null;
+    }
+
+    public static void endResize(Object event, Object canvas, int width, int height) {
+        if (event != null)
+            JfrEvents.endResize(event, canvas, width, height);
+    }
+
+    public static Object beginDispose() {
+        return AVAILABLE ? JfrEvents.beginDispose() : null;
+    }
+
+    public static void endDispose(Object event, Object canvas) {
+        if (event != null)
+            JfrEvents.endDispose(event, canvas);
+    }
+
+    public static Object beginSwapchainRecreation() {
+        return AVAILABLE ? JfrEvents.beginSwapchainRecreation() : null;
+    }
+
+    public static void endSwapchainRecreation(Object event, Object canvas, int result) {
+        if (event != null)
+            JfrEvents.endSwapchainRecreation(event, canvas, result);
+    }
+
+}
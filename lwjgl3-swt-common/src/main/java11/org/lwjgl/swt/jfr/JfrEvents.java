@@ -0,0 +1,231 @@
+package org.lwjgl.swt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * The JDK Flight Recorder events behind {@link CanvasEvents}. This class is only loaded once the <code>jdk.jfr</code> module is known
+ * to be present.
+ *
+ * @author Kai Burjack
+ */
+final class JfrEvents {
+
+    @Name("org.lwjgl.swt.Create")
+    @Label("Canvas Create")
+    @Category({ "LWJGL", "SWT" })
+    @Description("Creation of the native context or surface of a canvas, with a breakdown of its phases")
+    static final class CreateEvent extends Event {
+        @Label("Canvas")
+        String canvas;
+        @Label("Asynchronous")
+        @Description("Whether the context was created on a background thread")
+        boolean async;
+        @Label("Prepare")
+        @Description("Realizing the widget")
+        @Timespan(Timespan.NANOSECONDS)
+        long prepare;
+        @Label("Context")
+        @Description("Choosing the pixel format and creating the context or surface")
+        @Timespan(Timespan.NANOSECONDS)
+        long context;
+        @Label("Probe")
+        @Description("Probing the renderer")
+        @Timespan(Timespan.NANOSECONDS)
+        long probe;
+        @Label("Attach")
+        @Description("Creating and attaching the native window")
+        @Timespan(Timespan.NANOSECONDS)
+        long attach;
+    }
+
+    @Name("org.lwjgl.swt.MakeCurrent")
+    @Label("Canvas Make Current")
+    @Category({ "LWJGL", "SWT" })
+    @StackTrace(false)
+    @Threshold("1 ms")
+    static final class MakeCurrentEvent extends Event {
+        @Label("Canvas")
+        String canvas;
+    }
+
+    @Name("org.lwjgl.swt.Swap")
+    @Label("Canvas Swap")
+    @Category({ "LWJGL", "SWT" })
+    @StackTrace(false)
+    static final class SwapEvent extends Event {
+        @Label("Canvas")
+        String canvas;
+        @Label("Partial")
+        @Description("Whether only damaged regions were presented")
+        boolean partial;
+        @Label("Presented Pixels")
+        long presentedPixels;
+    }
+
+    @Name("org.lwjgl.swt.Resize")
+    @Label("Canvas Resize")
+    @Category({ "LWJGL", "SWT" })
+    @Description("From a resize of the canvas until the first swap or swapchain recreation at the new size has completed")
+    static final class ResizeEvent extends Event {
+        @Label("Canvas")
+        String canvas;
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+    }
+
+    @Name("org.lwjgl.swt.Dispose")
+    @Label("Canvas Dispose")
+    @Category({ "LWJGL", "SWT" })
+    static final class DisposeEvent extends Event {
+        @Label("Canvas")
+        String canvas;
+    }
+
+    @Name("org.lwjgl.swt.SwapchainRecreation")
+    @Label("Swapchain Recreation")
+    @Category({ "LWJGL", "SWT" })
+    static final class SwapchainRecreationEvent extends Event {
+        @Label("Canvas")
+        String canvas;
+        @Label("Result")
+        @Description("The VkResult that caused the recreation")
+        int result;
+    }
+
+    private static final EventType CREATE = EventType.getEventType(CreateEvent.class);
+    private static final EventType MAKE_CURRENT = EventType.getEventType(MakeCurrentEvent.class);
+    private static final EventType SWAP = EventType.getEventType(SwapEvent.class);
+    private static final EventType RESIZE = EventType.getEventType(ResizeEvent.class);
+    private static final EventType DISPOSE = EventType.getEventType(DisposeEvent.class);
+    private static final EventType SWAPCHAIN_RECREATION = EventType.getEventType(SwapchainRecreationEvent.class);
+
+    private JfrEvents() {
+    }
+
+    /**
+     * Trigger the static initialization, which fails with a {@link LinkageError} if the event classes cannot be linked.
+     */
+    static void init() {
+    }
+
+    private static String name(Object canvas) {
+        return canvas.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(canvas));
+    }
+
+    private static <T extends Event> T begin(T event) {
+        event.begin();
+        return event;
+    }
+
+    static Object beginCreate() {
+        return CREATE.isEnabled() ? begin(new CreateEvent()) : null;
+    }
+
+    static void endCreate(Object event, Object canvas, boolean async, long prepareNanos, long contextNanos, long probeNanos,
+            long attachNanos) {
+        if (event == null)
+            return;
+        CreateEvent e = (CreateEvent) event;
+        e.end();
+        if (!e.shouldCommit())
+            return;
+        e.canvas = name(canvas);
+        e.async = async;
+        e.prepare = prepareNanos;
+        e.context = contextNanos;
+        e.probe = probeNanos;
+        e.attach = attachNanos;
+        e.commit();
+    }
+
+    static Object beginMakeCurrent() {
+        return MAKE_CURRENT.isEnabled() ? begin(new MakeCurrentEvent()) : null;
+    }
+
+    static void endMakeCurrent(Object event, Object canvas) {
+        if (event == null)
+            return;
+        MakeCurrentEvent e = (MakeCurrentEvent) event;
+        e.end();
+        if (!e.shouldCommit())
+            return;
+        e.canvas = name(canvas);
+        e.commit();
+    }
+
+    static Object beginSwap() {
+        return SWAP.isEnabled() ? begin(new SwapEvent()) : null;
+    }
+
+    static void endSwap(Object event, Object canvas, boolean partial, long presentedPixels) {
+        if (event == null)
+            return;
+        SwapEvent e = (SwapEvent) event;
+        e.end();
+        if (!e.shouldCommit())
+            return;
+        e.canvas = name(canvas);
+        e.partial = partial;
+        e.presentedPixels = presentedPixels;
+        e.commit();
+    }
+
+    static Object beginResize() {
+        return RESIZE.isEnabled() ? begin(new ResizeEvent()) : null;
+    }
+
+    static void endResize(Object event, Object canvas, int width, int height) {
+        if (event == null)
+            return;
+        ResizeEvent e = (ResizeEvent) event;
+        e.end();
+        if (!e.shouldCommit())
+            return;
+        e.canvas = name(canvas);
+        e.width = width;
+        e.height = height;
+        e.commit();
+    }
+
+    static Object beginDispose() {
+        return DISPOSE.isEnabled() ? begin(new DisposeEvent()) : null;
+    }
+
+    static void endDispose(Object event, Object canvas) {
+        if (event == null)
+            return;
+        DisposeEvent e = (DisposeEvent) event;
+        e.end();
+        if (!e.shouldCommit())
+            return;
+        e.canvas = name(canvas);
+        e.commit();
+    }
+
+    static Object beginSwapchainRecreation() {
+        return SWAPCHAIN_RECREATION.isEnabled() ? begin(new SwapchainRecreationEvent()) : null;
+    }
+
+    static void endSwapchainRecreation(Object event, Object canvas, int result) {
+        if (event == null)
+            return;
+        SwapchainRecreationEvent e = (SwapchainRecreationEvent) event;
+        e.end();
+        if (!e.shouldCommit())
+            return;
+        e.canvas = name(canvas);
+        e.result = result;
+        e.commit();
+    }
+
+}
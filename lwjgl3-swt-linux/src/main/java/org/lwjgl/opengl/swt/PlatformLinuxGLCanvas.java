@@ -1,6 +1,8 @@
 package org.lwjgl.opengl.swt;
 
 import static org.lwjgl.opengl.GLX.*;
+import static org.lwjgl.opengl.GLX11.*;
+import static org.lwjgl.opengl.GLX12.*;
 import static org.lwjgl.opengl.GLX13.*;
 import static org.lwjgl.opengl.GLXARBContextFlushControl.*;
 import static org.lwjgl.opengl.GLXARBCreateContext.*;
@@ -13,8 +15,14 @@ import static org.lwjgl.opengl.GLXEXTCreateContextES2Profile.*;
 import static org.lwjgl.opengl.GLXEXTFramebufferSRGB.*;
 import static org.lwjgl.opengl.GLXNVDelayBeforeSwap.*;
 import static org.lwjgl.opengl.GLXNVMultisampleCoverage.*;
+import static org.lwjgl.opengl.GLXOMLSyncControl.*;
+import static org.lwjgl.opengl.GLXSGIVideoSync.*;
+import static org.lwjgl.system.dyncall.DynCall.*;
 
 import java.nio.IntBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTException;
@@ -34,6 +42,11 @@ import org.lwjgl.opengl.KHRNoError;
 import org.lwjgl.opengl.swt.GLData.API;
 import org.lwjgl.opengl.swt.GLData.Profile;
 import org.lwjgl.opengl.swt.GLData.ReleaseBehavior;
+import org.lwjgl.system.JNI;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.system.linux.DynamicLinkLoader;
+import org.lwjgl.system.linux.X11;
 import org.lwjgl.system.linux.XVisualInfo;
 
 /**
@@ -43,8 +56,36 @@ import org.lwjgl.system.linux.XVisualInfo;
  */
 class PlatformLinuxGLCanvas extends AbstractPlatformGLCanvas {
 
+	// from GLX_EXT_buffer_age
+	private static final int GLX_BACK_BUFFER_AGE_EXT = 0x20F4;
+
+	private Boolean bufferAgeSupported;
+	private Boolean xlibThreads;
+	private long glXQueryCurrentRendererIntegerMESA = -1L;
+	private long glXCopySubBufferMESA = -1L;
+	private long gdk_window_set_event_compression = -1L;
+
+	/**
+	 * The number of canvases using each context, for contexts shared via {@link GLData#singleContext}.
+	 */
+	private final Map<Long, Integer> contextUsers = Collections.synchronizedMap(new HashMap<Long, Integer>());
+
 	@Override
 	public long create(GLCanvas canvas, GLData data, GLData effective) {
+		prepareCreate(canvas, data);
+		long context;
+		try {
+			context = createContext(canvas, data, effective);
+		} catch (SWTException e) {
+			canvas.dispose();
+			throw e;
+		}
+		attachContext(canvas, data, context);
+		return context;
+	}
+
+	@Override
+	public boolean prepareCreate(GLCanvas canvas, GLData data) {
 
 		// Validate context attributes
 		validateAttributes(data);
@@ -54,7 +95,13 @@ class PlatformLinuxGLCanvas extends AbstractPlatformGLCanvas {
 		
 		// grab handles to our window/display
 		long window = GTK.gtk_widget_get_window(canvas.handle);
-		long xDisplay = gdk_x11_display_get_xdisplay(window);
+		canvas.xDisplay = gdk_x11_display_get_xdisplay(window);
+		return true;
+	}
+
+	@Override
+	public long createContext(GLCanvas canvas, GLData data, GLData effective) {
+		long xDisplay = canvas.xDisplay;
 
 		// generate a list of config options for our frame buffer from the supplied data
         IntBuffer attribList = BufferUtils.createIntBuffer(64);
@@ -63,12 +110,39 @@ class PlatformLinuxGLCanvas extends AbstractPlatformGLCanvas {
         // ask for matching frame buffer configs
 		PointerBuffer fbCfg = glXChooseFBConfig(xDisplay, 0, attribList);
 		if (fbCfg == null || !fbCfg.hasRemaining()) {
-			canvas.dispose();
 			throw new SWTException("Unable to find matching FB Config");
 		}
 
+		canvas.fbConfig = fbCfg.get(0);
+
+		// context generation time - put we'll use our fbconfig here to get a core compatible context
+		// start by generating our list of attributes
+		attribList.clear();
+		GLXCapabilities caps = GL.getCapabilitiesGLX();
+		populateContextAttribs(data, attribList, caps);
+
+		// create the context... pass our display, fbconfig, attributes and any shared context
+		long share = data.shareContext != null ? data.shareContext.context : 0;
+		long context;
+		if (data.singleContext && share != 0 && sameFBConfig(xDisplay, data.shareContext.fbConfig, canvas.fbConfig)) {
+			// drive this drawable with the share context itself
+			context = share;
+			contextUsers.merge(context, 2, (users, initial) -> users + 1);
+			effective.singleContext = true;
+			effective.shareContext = data.shareContext;
+		} else {
+			context = glXCreateContextAttribsARB(xDisplay, fbCfg.get(0), share, true, attribList);
+			if (context == 0) throw new SWTException("Unable to create context");
+		}
+		return context;
+	}
+
+	@Override
+	public void attachContext(GLCanvas canvas, GLData data, long context) {
+		long window = GTK.gtk_widget_get_window(canvas.handle);
+
 		// convert our fbconfig to a visualinfo so we can apply it to the widget
-		XVisualInfo viz = glXGetVisualFromFBConfig(xDisplay, fbCfg.get(0));
+		XVisualInfo viz = glXGetVisualFromFBConfig(canvas.xDisplay, canvas.fbConfig);
 		
 		// grab our default screen for the default display
 		long screen = GDK.gdk_screen_get_default();
@@ -98,35 +172,21 @@ class PlatformLinuxGLCanvas extends AbstractPlatformGLCanvas {
 		canvas.xWindow = GDK.gdk_x11_window_get_xid(canvas.glWindow);
 		GDK.gdk_window_show(canvas.glWindow);
 
-		// context generation time - put we'll use our fbconfig here to get a core compatible context
-		// start by generating our list of attributes
-		attribList.rewind();
-		GLXCapabilities caps = GL.getCapabilitiesGLX();
-		populateContextAttribs(data, attribList, caps);
-
-		// create the context... pass our display, fbconfig, attributes and any shared context
-		long share = data.shareContext != null ? data.shareContext.context : 0;
-		long context = glXCreateContextAttribsARB(xDisplay, fbCfg.get(0), share, true, attribList);
-		if (context == 0) throw new SWTException("Unable to create context");
-
-		// Set up SWT event listeners to handle disposal and resize
+		// Set up SWT event listeners to handle disposal and resize, only once since they outlive a recreated context
+		if (canvas.platformListeners) return;
+		canvas.platformListeners = true;
 		Listener listener = event -> {
 			switch (event.type) {
 			case SWT.Resize:
-				Rectangle clientArea = DPIUtil.autoScaleUp(canvas.getClientArea());
-				GDK.gdk_window_move(canvas.glWindow, clientArea.x, clientArea.y);
-				GDK.gdk_window_resize(canvas.glWindow, clientArea.width, clientArea.height);
+				fitDrawable(canvas);
 				break;
 			case SWT.Dispose:
-				deleteContext(canvas, context);
+				deleteContext(canvas, canvas.context);
 				break;
 			}
 		};
 		canvas.addListener(SWT.Resize, listener);
 		canvas.addListener(SWT.Dispose, listener);
-		
-		// Done!  Return our context.
-		return context;
 	}
 
 	private void populateFBConfigAttribs(GLData data, IntBuffer attribList) {
@@ -233,6 +293,34 @@ class PlatformLinuxGLCanvas extends AbstractPlatformGLCanvas {
 		return glXGetCurrentContext () == context;
 	}
 
+	@Override
+	public boolean isCurrent(GLCanvas canvas, long context) {
+		return glXGetCurrentContext() == context && glXGetCurrentDrawable() == canvas.xWindow;
+	}
+
+	@Override
+	public long[] saveCurrent() {
+		return new long[] { glXGetCurrentDisplay(), glXGetCurrentDrawable(), glXGetCurrentReadDrawable(), glXGetCurrentContext() };
+	}
+
+	@Override
+	public void restoreCurrent(GLCanvas canvas, long[] saved) {
+		// without a previously current context there is no display to restore on, so release the canvas' one
+		long xDisplay = saved[0] != 0 ? saved[0] : canvas.xDisplay;
+		glXMakeContextCurrent(xDisplay, saved[1], saved[2], saved[3]);
+	}
+
+	private static boolean sameFBConfig(long xDisplay, long a, long b) {
+		if (a == b) return true;
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			IntBuffer idA = stack.mallocInt(1);
+			IntBuffer idB = stack.mallocInt(1);
+			return glXGetFBConfigAttrib(xDisplay, a, GLX_FBCONFIG_ID, idA) == 0
+					&& glXGetFBConfigAttrib(xDisplay, b, GLX_FBCONFIG_ID, idB) == 0
+					&& idA.get(0) == idB.get(0);
+		}
+	}
+
 	@Override
 	public boolean makeCurrent(GLCanvas canvas, long context) {
 		long window = GTK.gtk_widget_get_window(canvas.handle);
@@ -245,10 +333,20 @@ class PlatformLinuxGLCanvas extends AbstractPlatformGLCanvas {
 		long window = GTK.gtk_widget_get_window(canvas.handle);
 		long xDisplay = gdk_x11_display_get_xdisplay(window);
 		if (context != 0) {
-			if (glXGetCurrentContext() == context) {
-				glXMakeCurrent(xDisplay, 0, 0);
+			Integer users = contextUsers.get(context);
+			if (users != null && users > 1) {
+				// the context is still used by other canvases, only release this drawable
+				contextUsers.put(context, users - 1);
+				if (glXGetCurrentContext() == context && glXGetCurrentDrawable() == canvas.xWindow) {
+					glXMakeCurrent(xDisplay, 0, 0);
+				}
+			} else {
+				contextUsers.remove(context);
+				if (glXGetCurrentContext() == context) {
+					glXMakeCurrent(xDisplay, 0, 0);
+				}
+				glXDestroyContext(xDisplay, context);
 			}
-			glXDestroyContext(xDisplay, context);
 			canvas.context = 0;
 		}
 		if (canvas.glWindow != 0) {
@@ -266,6 +364,117 @@ class PlatformLinuxGLCanvas extends AbstractPlatformGLCanvas {
 		return false;
 	}
 
+	@Override
+	public boolean swapBuffers(GLCanvas canvas, Rectangle[] damage) {
+		if (glXCopySubBufferMESA == -1L) {
+			String extensions = glXQueryExtensionsString(canvas.xDisplay, X11.XDefaultScreen(canvas.xDisplay));
+			glXCopySubBufferMESA = extensions != null && extensions.contains("GLX_MESA_copy_sub_buffer")
+					? GL.getFunctionProvider().getFunctionAddress("glXCopySubBufferMESA") : 0L;
+		}
+		if (!canvas.requested.doubleBuffer || glXCopySubBufferMESA == 0L) {
+			swapBuffers(canvas);
+			return false;
+		}
+		// copy the damaged regions from the back to the front buffer, leaving the back buffer intact
+		int height = DPIUtil.autoScaleUp(canvas.getClientArea()).height;
+		long vm = dcNewCallVM(64);
+		try {
+			for (int i = 0; i < damage.length; i++) {
+				Rectangle r = DPIUtil.autoScaleUp(damage[i]);
+				dcReset(vm);
+				dcArgPointer(vm, canvas.xDisplay);
+				dcArgPointer(vm, canvas.xWindow);
+				dcArgInt(vm, r.x);
+				dcArgInt(vm, height - r.y - r.height);
+				dcArgInt(vm, r.width);
+				dcArgInt(vm, r.height);
+				dcCallVoid(vm, glXCopySubBufferMESA);
+			}
+		} finally {
+			dcFree(vm);
+		}
+		return true;
+	}
+
+	@Override
+	public int getBufferAge(GLCanvas canvas) {
+		if (bufferAgeSupported == null) {
+			String extensions = glXQueryExtensionsString(canvas.xDisplay, X11.XDefaultScreen(canvas.xDisplay));
+			bufferAgeSupported = extensions != null && extensions.contains("GLX_EXT_buffer_age");
+		}
+		if (!bufferAgeSupported) return 0;
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			IntBuffer age = stack.mallocInt(1);
+			glXQueryDrawable(canvas.xDisplay, canvas.xWindow, GLX_BACK_BUFFER_AGE_EXT, age);
+			return age.get(0);
+		}
+	}
+
+	@Override
+	public boolean queryRendererInteger(GLCanvas canvas, int attribute, int[] value) {
+		if (glXQueryCurrentRendererIntegerMESA == -1L) {
+			String extensions = glXQueryExtensionsString(canvas.xDisplay, X11.XDefaultScreen(canvas.xDisplay));
+			glXQueryCurrentRendererIntegerMESA = extensions != null && extensions.contains("GLX_MESA_query_renderer")
+					? GL.getFunctionProvider().getFunctionAddress("glXQueryCurrentRendererIntegerMESA") : 0L;
+		}
+		if (glXQueryCurrentRendererIntegerMESA == 0L) return false;
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			// the attributes queried here return a single value; False is returned for attributes the renderer does not know
+			IntBuffer result = stack.mallocInt(1);
+			if (JNI.callPI(attribute, MemoryUtil.memAddress(result), glXQueryCurrentRendererIntegerMESA) == 0) return false;
+			value[0] = result.get(0);
+			return true;
+		}
+	}
+
+	@Override
+	public boolean canRecreateContext() {
+		return true;
+	}
+
+	@Override
+	public boolean isDisplayThreadSafe(GLCanvas canvas) {
+		if (xlibThreads == null) {
+			// XInitThreads installs the lock functions Xlib calls around every request, see Xlibint.h
+			long lockMutex = X11.getLibrary().getFunctionAddress("_XLockMutex_fn");
+			xlibThreads = lockMutex != 0L && MemoryUtil.memGetAddress(lockMutex) != 0L;
+		}
+		return xlibThreads;
+	}
+
+	@Override
+	public boolean fitDrawable(GLCanvas canvas) {
+		// the drawable may have been destroyed to be recreated later
+		if (canvas.glWindow == 0) return false;
+		Rectangle clientArea = DPIUtil.autoScaleUp(canvas.getClientArea());
+		GDK.gdk_window_move(canvas.glWindow, clientArea.x, clientArea.y);
+		GDK.gdk_window_resize(canvas.glWindow, clientArea.width, clientArea.height);
+		return true;
+	}
+
+	@Override
+	public boolean resizeDrawable(GLCanvas canvas, int width, int height) {
+		if (canvas.glWindow == 0) return false;
+		GDK.gdk_window_resize(canvas.glWindow, width, height);
+		return true;
+	}
+
+	@Override
+	public boolean setHighRatePointerInput(GLCanvas canvas, boolean enable) {
+		if (canvas.glWindow == 0) return false;
+		int mask = GDK.gdk_window_get_events(canvas.glWindow);
+		GDK.gdk_window_set_events(canvas.glWindow, enable ? mask & ~GDK.GDK_POINTER_MOTION_HINT_MASK : mask | GDK.GDK_POINTER_MOTION_HINT_MASK);
+		// GTK 3.12+ merges all motion events of a frame clock cycle unless compression is disabled, not bound by SWT
+		if (gdk_window_set_event_compression == -1L) {
+			long gdk = DynamicLinkLoader.dlopen("libgdk-3.so.0", DynamicLinkLoader.RTLD_LAZY);
+			gdk_window_set_event_compression = gdk != 0L ? DynamicLinkLoader.dlsym(gdk, "gdk_window_set_event_compression") : 0L;
+		}
+		if (gdk_window_set_event_compression != 0L) {
+			JNI.callPV(canvas.glWindow, enable ? 0 : 1, gdk_window_set_event_compression);
+		}
+		return true;
+	}
+
 	@Override
 	public boolean delayBeforeSwapNV(GLCanvas canvas, float seconds) {
 		long window = GTK.gtk_widget_get_window(canvas.handle);
@@ -273,6 +482,107 @@ class PlatformLinuxGLCanvas extends AbstractPlatformGLCanvas {
         return glXDelayBeforeSwapNV(xDisplay, canvas.xWindow, seconds);
 	}
 
+	@Override
+	public long createWorkerDrawable(GLCanvas canvas) {
+		// a 1x1 pbuffer with the canvas' FBConfig, which works on every GLX 1.3 implementation unlike surfaceless contexts
+		IntBuffer attribList = BufferUtils.createIntBuffer(5);
+		attribList.put(GLX_PBUFFER_WIDTH).put(1).put(GLX_PBUFFER_HEIGHT).put(1).put(0).flip();
+		long pbuffer = glXCreatePbuffer(canvas.xDisplay, canvas.fbConfig, attribList);
+		if (pbuffer == 0) throw new SWTException("Unable to create pbuffer for worker context");
+		return pbuffer;
+	}
+
+	@Override
+	public long createWorkerContext(GLCanvas canvas) {
+		IntBuffer attribList = BufferUtils.createIntBuffer(64);
+		populateContextAttribs(canvas.requested, attribList, GL.getCapabilitiesGLX());
+		long context = glXCreateContextAttribsARB(canvas.xDisplay, canvas.fbConfig, canvas.context, true, attribList);
+		if (context == 0) throw new SWTException("Unable to create worker context");
+		return context;
+	}
+
+	@Override
+	public boolean makeWorkerCurrent(GLCanvas canvas, long drawable, long context) {
+		return glXMakeContextCurrent(canvas.xDisplay, drawable, drawable, context);
+	}
+
+	@Override
+	public void deleteWorker(GLCanvas canvas, long drawable, long context) {
+		if (glXGetCurrentContext() == context) {
+			glXMakeContextCurrent(canvas.xDisplay, 0, 0, 0);
+		}
+		if (context != 0) glXDestroyContext(canvas.xDisplay, context);
+		if (drawable != 0) glXDestroyPbuffer(canvas.xDisplay, drawable);
+	}
+
+	@Override
+	public boolean getSyncValues(GLCanvas canvas, long[] ustMscSbc) {
+		GLXCapabilities caps = GL.getCapabilitiesGLX();
+		if (caps.GLX_OML_sync_control) {
+			long[] ust = new long[1], msc = new long[1], sbc = new long[1];
+			if (!glXGetSyncValuesOML(canvas.xDisplay, canvas.xWindow, ust, msc, sbc)) return false;
+			ustMscSbc[0] = ust[0];
+			ustMscSbc[1] = msc[0];
+			ustMscSbc[2] = sbc[0];
+			return true;
+		}
+		if (caps.GLX_SGI_video_sync) {
+			int[] count = new int[1];
+			if (glXGetVideoSyncSGI(count) != 0) return false;
+			ustMscSbc[0] = System.nanoTime() / 1000L;
+			ustMscSbc[1] = count[0] & 0xFFFFFFFFL;
+			ustMscSbc[2] = canvas.swapCount;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public long swapBuffersMsc(GLCanvas canvas, long targetMsc, long divisor, long remainder) {
+		GLXCapabilities caps = GL.getCapabilitiesGLX();
+		if (caps.GLX_OML_sync_control) {
+			return glXSwapBuffersMscOML(canvas.xDisplay, canvas.xWindow, targetMsc, divisor, remainder);
+		}
+		if (caps.GLX_SGI_video_sync) {
+			// no scheduled swaps with SGI_video_sync, so wait for the retrace on the CPU and then swap immediately
+			if (!waitVideoSyncSGI(targetMsc, divisor, remainder)) return -1L;
+			glXSwapBuffers(canvas.xDisplay, canvas.xWindow);
+			return canvas.swapCount + 1;
+		}
+		return -1L;
+	}
+
+	@Override
+	public boolean waitForMsc(GLCanvas canvas, long targetMsc, long divisor, long remainder, long[] ustMscSbc) {
+		GLXCapabilities caps = GL.getCapabilitiesGLX();
+		if (caps.GLX_OML_sync_control) {
+			long[] ust = new long[1], msc = new long[1], sbc = new long[1];
+			if (!glXWaitForMscOML(canvas.xDisplay, canvas.xWindow, targetMsc, divisor, remainder, ust, msc, sbc)) return false;
+			ustMscSbc[0] = ust[0];
+			ustMscSbc[1] = msc[0];
+			ustMscSbc[2] = sbc[0];
+			return true;
+		}
+		if (caps.GLX_SGI_video_sync) {
+			if (!waitVideoSyncSGI(targetMsc, divisor, remainder)) return false;
+			return getSyncValues(canvas, ustMscSbc);
+		}
+		return false;
+	}
+
+	private static boolean waitVideoSyncSGI(long targetMsc, long divisor, long remainder) {
+		int[] count = new int[1];
+		if (glXGetVideoSyncSGI(count) != 0) return false;
+		while ((count[0] & 0xFFFFFFFFL) < targetMsc) {
+			// wait for the next retrace; with a divisor of 1 some drivers return immediately
+			if (glXWaitVideoSyncSGI(2, (count[0] + 1) & 1, count) != 0) return false;
+		}
+		if ((count[0] & 0xFFFFFFFFL) > targetMsc && divisor > 0) {
+			if (glXWaitVideoSyncSGI((int) divisor, (int) remainder, count) != 0) return false;
+		}
+		return true;
+	}
+
 	private long gdk_x11_display_get_xdisplay(long window) {
 		long display = GDK.gdk_window_get_display(window);
 		return GDK.gdk_x11_display_get_xdisplay(display);
@@ -0,0 +1,245 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL21.*;
+import static org.lwjgl.opengl.GL32.*;
+
+import java.awt.AWTException;
+import java.awt.Robot;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.lwjgl.opengl.GL;
+
+/**
+ * Measures input-to-photon latency of a {@link GLCanvas}, meant to be run under Xvfb.
+ * <p>
+ * Synthetic pointer motion is injected via XTest (through {@link Robot}, which uses XTest on X11). The renderer drains the events via
+ * {@link GLPointerInput}, encodes the number of received events in the bottom-left pixel and swaps. After each swap that pixel is read back
+ * from the front buffer into a pixel buffer object, and polled via a fence on the following frames. The time from injecting an event until
+ * its sequence number is seen in the front buffer is the latency of that event.
+ * <p>
+ * The latency distribution is reported for every combination of scheduling mode, swap interval and
+ * {@link GLCanvas#setMaxFramesInFlight(int) frames in flight}. The optional first argument is the number of samples per combination.
+ *
+ * @author Kai Burjack
+ */
+public class InputLatencyHarness {
+
+	enum Scheduling {
+		/** Render after every readAndDispatch() of a busy main loop */
+		LOOP,
+		/** Render from a self-reposting Display.asyncExec() */
+		ASYNC,
+		/** Render from a self-reposting Display.timerExec(1, ...) */
+		TIMER
+	}
+
+	private static final int READBACKS = 4;
+	private static final long TIMEOUT_NANOS = 500000000L;
+
+	private final Display display;
+	private final GLCanvas canvas;
+	private final Robot robot;
+	private final int samples;
+	private final int[] pbos = new int[READBACKS];
+	private final long[] fences = new long[READBACKS];
+	private int readIndex;
+	private int writeIndex;
+
+	private GLPointerInput input;
+	private int received;
+	private final long[] injectNanos;
+	private final long[] latencies;
+	private volatile int injected;
+	private volatile int detected;
+	private int sampleCount;
+	private volatile boolean running;
+
+	InputLatencyHarness(Display display, GLCanvas canvas, Robot robot, int samples) {
+		this.display = display;
+		this.canvas = canvas;
+		this.robot = robot;
+		this.samples = samples;
+		this.injectNanos = new long[samples + 1];
+		this.latencies = new long[samples];
+		canvas.setCurrent();
+		GL.createCapabilities();
+		glGenBuffers(pbos);
+		for (int i = 0; i < READBACKS; i++) {
+			glBindBuffer(GL_PIXEL_PACK_BUFFER, pbos[i]);
+			glBufferData(GL_PIXEL_PACK_BUFFER, 4, GL_STREAM_READ);
+		}
+		glBindBuffer(GL_PIXEL_PACK_BUFFER, 0);
+	}
+
+	private void render() {
+		if (canvas.isDisposed())
+			return;
+		received += input.drain((type, x, y, button, stateMask, time) -> {});
+		glDisable(GL_SCISSOR_TEST);
+		glClearColor(0.2f, 0.2f, 0.2f, 1.0f);
+		glClear(GL_COLOR_BUFFER_BIT);
+		glEnable(GL_SCISSOR_TEST);
+		glScissor(0, 0, 4, 4);
+		glClearColor((received & 0xFF) / 255.0f, (received >>> 8 & 0xFF) / 255.0f, 0.0f, 1.0f);
+		glClear(GL_COLOR_BUFFER_BIT);
+		canvas.swapBuffers();
+		readback();
+		poll();
+	}
+
+	private void readback() {
+		if (writeIndex - readIndex == READBACKS)
+			return;
+		int i = writeIndex % READBACKS;
+		glReadBuffer(GL_FRONT);
+		glBindBuffer(GL_PIXEL_PACK_BUFFER, pbos[i]);
+		glReadPixels(0, 0, 1, 1, GL_RGBA, GL_UNSIGNED_BYTE, 0L);
+		glBindBuffer(GL_PIXEL_PACK_BUFFER, 0);
+		glReadBuffer(GL_BACK);
+		fences[i] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+		glFlush();
+		writeIndex++;
+	}
+
+	private void poll() {
+		while (readIndex < writeIndex) {
+			int i = readIndex % READBACKS;
+			int status = glClientWaitSync(fences[i], 0, 0L);
+			if (status != GL_ALREADY_SIGNALED && status != GL_CONDITION_SATISFIED)
+				return;
+			long now = System.nanoTime();
+			glDeleteSync(fences[i]);
+			glBindBuffer(GL_PIXEL_PACK_BUFFER, pbos[i]);
+			ByteBuffer pixel = glMapBuffer(GL_PIXEL_PACK_BUFFER, GL_READ_ONLY);
+			int seq = (pixel.get(0) & 0xFF) | (pixel.get(1) & 0xFF) << 8;
+			glUnmapBuffer(GL_PIXEL_PACK_BUFFER);
+			glBindBuffer(GL_PIXEL_PACK_BUFFER, 0);
+			readIndex++;
+			int expected = injected;
+			if (seq == (expected & 0xFFFF) && expected > detected && sampleCount < samples) {
+				latencies[sampleCount++] = now - injectNanos[expected];
+				detected = expected;
+			}
+		}
+	}
+
+	private void inject(Point origin) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int k = 1; k <= samples && running; k++) {
+			// random phase relative to the frame cadence
+			sleep(random.nextInt(16));
+			injectNanos[k] = System.nanoTime();
+			injected = k;
+			robot.mouseMove(origin.x + (k & 1) + 10, origin.y + 10);
+			long start = System.nanoTime();
+			while (detected < k && System.nanoTime() - start < TIMEOUT_NANOS)
+				sleep(0);
+		}
+		running = false;
+		display.wake();
+	}
+
+	private static void sleep(int millis) {
+		try {
+			Thread.sleep(millis, millis == 0 ? 100000 : 0);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	long[] run(Scheduling scheduling, int maxFramesInFlight) {
+		canvas.setMaxFramesInFlight(maxFramesInFlight);
+		input = canvas.enablePointerInput(1024);
+		received = 0;
+		injected = 0;
+		detected = 0;
+		sampleCount = 0;
+		running = true;
+		Point origin = display.map(canvas, null, 0, 0);
+		// the event counter restarts with this run, so move the pointer away first
+		robot.mouseMove(origin.x + 100, origin.y + 100);
+		while (display.readAndDispatch())
+			;
+		input.drain((type, x, y, button, stateMask, time) -> {});
+		Thread injector = new Thread(() -> inject(origin), "XTest injector");
+		injector.start();
+		Runnable[] task = new Runnable[1];
+		task[0] = () -> {
+			if (!running)
+				return;
+			render();
+			if (scheduling == Scheduling.ASYNC)
+				display.asyncExec(task[0]);
+			else if (scheduling == Scheduling.TIMER)
+				display.timerExec(1, task[0]);
+		};
+		if (scheduling != Scheduling.LOOP)
+			task[0].run();
+		while (running && !canvas.isDisposed()) {
+			if (scheduling == Scheduling.LOOP) {
+				display.readAndDispatch();
+				render();
+			} else if (!display.readAndDispatch()) {
+				display.sleep();
+			}
+		}
+		try {
+			injector.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		canvas.disablePointerInput();
+		return Arrays.copyOf(latencies, sampleCount);
+	}
+
+	private static String report(long[] latencies) {
+		if (latencies.length == 0)
+			return "no samples";
+		Arrays.sort(latencies);
+		return String.format("n=%d min=%.2f p50=%.2f p90=%.2f p99=%.2f max=%.2f ms", latencies.length, latencies[0] / 1E6,
+				percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1E6);
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1E6;
+	}
+
+	public static void main(String[] args) throws AWTException {
+		int samples = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		Robot robot = new Robot();
+		Display display = new Display();
+		for (int swapInterval = 0; swapInterval <= 1; swapInterval++) {
+			Shell shell = new Shell(display, SWT.SHELL_TRIM | SWT.NO_BACKGROUND);
+			shell.setLayout(new FillLayout());
+			GLData data = new GLData();
+			data.majorVersion = 3;
+			data.minorVersion = 2;
+			data.swapInterval = swapInterval;
+			GLCanvas canvas = new GLCanvas(shell, SWT.NO_BACKGROUND, data);
+			shell.setSize(320, 240);
+			shell.open();
+			while (display.readAndDispatch())
+				;
+			InputLatencyHarness harness = new InputLatencyHarness(display, canvas, robot, samples);
+			for (Scheduling scheduling : Scheduling.values()) {
+				for (int maxFramesInFlight = 0; maxFramesInFlight <= 2; maxFramesInFlight++) {
+					long[] latencies = harness.run(scheduling, maxFramesInFlight);
+					System.out.println("swapInterval=" + swapInterval + " scheduling=" + scheduling + " maxFramesInFlight="
+							+ maxFramesInFlight + ": " + report(latencies));
+				}
+			}
+			shell.dispose();
+		}
+		display.dispose();
+	}
+
+}
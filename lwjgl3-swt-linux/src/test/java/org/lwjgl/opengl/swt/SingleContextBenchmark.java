@@ -0,0 +1,95 @@
+package org.lwjgl.opengl.swt;
+
+import static org.lwjgl.opengl.GL11.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.lwjgl.opengl.GL;
+
+/**
+ * Compares a context per {@link GLCanvas} with all canvases driven by one context via {@link GLData#singleContext}, for 8 to 32 canvases.
+ * <p>
+ * For each configuration, the time to create all canvases, the growth of the resident set size and the average time of one frame that
+ * makes every canvas current, clears it and swaps is reported. The optional first argument is the number of measured frames.
+ *
+ * @author Kai Burjack
+ */
+public class SingleContextBenchmark {
+
+	private static long residentKiB() {
+		try {
+			for (String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.US_ASCII))
+				if (line.startsWith("VmRSS:"))
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+		} catch (IOException e) {
+			// fall through
+		}
+		return -1L;
+	}
+
+	private static void run(Display display, int count, boolean singleContext, int frames) {
+		Shell shell = new Shell(display, SWT.SHELL_TRIM | SWT.NO_BACKGROUND);
+		shell.setLayout(new GridLayout(8, true));
+		GLCanvas[] canvases = new GLCanvas[count];
+		long rss = residentKiB();
+		long time = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			GLData data = new GLData();
+			data.shareContext = i > 0 ? canvases[0] : null;
+			data.singleContext = singleContext;
+			// measure the cost of presenting, not of waiting for vertical blanks
+			data.swapInterval = 0;
+			canvases[i] = new GLCanvas(shell, SWT.NO_BACKGROUND, data);
+			canvases[i].setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+		}
+		long createNanos = System.nanoTime() - time;
+		shell.setSize(8 * 80, (count + 7) / 8 * 80);
+		shell.open();
+		while (display.readAndDispatch())
+			;
+		canvases[0].setCurrent();
+		GL.createCapabilities();
+		boolean shared = canvases[count - 1].getGLData().singleContext;
+		long rssGrowth = residentKiB() - rss;
+		long frameNanos = 0L;
+		for (int frame = -10; frame < frames; frame++) {
+			time = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				GLCanvas canvas = canvases[i];
+				canvas.setCurrent();
+				Rectangle bounds = canvas.getClientArea();
+				glViewport(0, 0, bounds.width, bounds.height);
+				glClearColor(i / (float) count, (frame & 63) / 63.0f, 0.5f, 1.0f);
+				glClear(GL_COLOR_BUFFER_BIT);
+				canvas.swapBuffers();
+			}
+			glFinish();
+			if (frame >= 0)
+				frameNanos += System.nanoTime() - time;
+			display.readAndDispatch();
+		}
+		System.out.printf("%2d canvases, %s: create %.1f ms, RSS +%d KiB, frame %.3f ms%n", count,
+				shared ? "single context" : "context per canvas", createNanos / 1E6, rssGrowth, frameNanos / 1E6 / frames);
+		shell.dispose();
+	}
+
+	public static void main(String[] args) {
+		int frames = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		Display display = new Display();
+		for (int count = 8; count <= 32; count *= 2) {
+			run(display, count, false, frames);
+			run(display, count, true, frames);
+		}
+		display.dispose();
+	}
+
+}
@@ -130,18 +130,22 @@ class PlatformWin32GLCanvas extends AbstractPlatformGLCanvas {
             stack.setPointer(ptr);
             SWT.error(SWT.ERROR_UNSUPPORTED_DEPTH, e);
         }
-        final long finalContext = context;
         dummycanvas.dispose();
-        Listener listener = new Listener() {
-            public void handleEvent(Event event) {
-                switch (event.type) {
-                case SWT.Dispose:
-                    deleteContext(canvas, finalContext);
-                    break;
+        // Only once, as the context may be destroyed and created again during the lifetime of the canvas
+        if (!canvas.platformListeners) {
+            canvas.platformListeners = true;
+            Listener listener = new Listener() {
+                public void handleEvent(Event event) {
+                    switch (event.type) {
+                    case SWT.Dispose:
+                        if (canvas.context != 0L)
+                            deleteContext(canvas, canvas.context);
+                        break;
+                    }
                 }
-            }
-        };
-        canvas.addListener(SWT.Dispose, listener);
+            };
+            canvas.addListener(SWT.Dispose, listener);
+        }
         return context;
     }
 
@@ -247,7 +251,9 @@ class PlatformWin32GLCanvas extends AbstractPlatformGLCanvas {
                 && attribs.contextReleaseBehavior == null && !attribs.robustness && attribs.api != API.GLES) {
             /* Finally, create the real context on the real window */
             long hDC = User32.GetDC(windowHandle);
-            GDI32.SetPixelFormat(hDC, pixelFormat, pfd);
+            // The pixel format of a window can only be set once, it is already set when the context is recreated
+            if (GDI32.GetPixelFormat(hDC) == 0)
+                GDI32.SetPixelFormat(hDC, pixelFormat, pfd);
             success = WGL.wglDeleteContext(dummyContext);
             if (!success) {
                 User32.ReleaseDC(windowHandle, hDC);
@@ -586,8 +592,9 @@ class PlatformWin32GLCanvas extends AbstractPlatformGLCanvas {
                         .put(WGLARBContextFlushControl.WGL_CONTEXT_RELEASE_BEHAVIOR_FLUSH_ARB);
         }
         attribList.put(0).put(0);
-        // Set pixelformat
-        success = GDI32.SetPixelFormat(hDC, pixelFormat, pfd);
+        // Set pixelformat, unless it has been set by a previous context of the same window
+        int currentPixelFormat = GDI32.GetPixelFormat(hDC);
+        success = currentPixelFormat != 0 ? currentPixelFormat == pixelFormat : GDI32.SetPixelFormat(hDC, pixelFormat, pfd);
         if (!success) {
             User32.ReleaseDC(windowHandle, hDC);
             WGL.wglDeleteContext(dummyContext);
@@ -736,6 +743,14 @@ class PlatformWin32GLCanvas extends AbstractPlatformGLCanvas {
         return ret == context;
     }
 
+    public long[] saveCurrent() {
+        return new long[] { WGL.wglGetCurrentDC(), WGL.wglGetCurrentContext() };
+    }
+
+    public void restoreCurrent(GLCanvas canvas, long[] saved) {
+        WGL.wglMakeCurrent(saved[0], saved[1]);
+    }
+
     public boolean makeCurrent(GLCanvas canvas, long context) {
         long hDC = User32.GetDC(canvas.handle);
         boolean ret = WGL.wglMakeCurrent(hDC, context);
@@ -743,6 +758,10 @@ class PlatformWin32GLCanvas extends AbstractPlatformGLCanvas {
         return ret;
     }
 
+    public boolean canRecreateContext() {
+        return true;
+    }
+
     public boolean deleteContext(GLCanvas canvas, long context) {
         boolean ret = WGL.wglDeleteContext(context);
         return ret;